@@ -0,0 +1,37 @@
+package com.virtualpets.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caffeine-backed caches for the @Cacheable service methods. Every cache is bounded,
+ * expires after a fixed TTL and records stats for /admin/metrics. Null results are not
+ * cached, so a lookup that fails is retried on the next request.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String USER_PAGES = "userPages";
+    public static final String USER_BY_USERNAME = "userByUsername";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${users.cache.ttl-ms:60000}") long ttlMillis,
+                                     @Value("${users.cache.max-pages:200}") long maxPages,
+                                     @Value("${users.cache.max-users:10000}") long maxUsers) {
+        Duration ttl = Duration.ofMillis(ttlMillis);
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(1_000).expireAfterWrite(ttl).recordStats());
+        cacheManager.registerCustomCache(USER_PAGES,
+                Caffeine.newBuilder().maximumSize(maxPages).expireAfterWrite(ttl).recordStats().build());
+        cacheManager.registerCustomCache(USER_BY_USERNAME,
+                Caffeine.newBuilder().maximumSize(maxUsers).expireAfterWrite(ttl).recordStats().build());
+        return cacheManager;
+    }
+}
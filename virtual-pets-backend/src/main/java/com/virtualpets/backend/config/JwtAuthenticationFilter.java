@@ -1,27 +1,30 @@
 package com.virtualpets.backend.config;
 
-import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.auth0.jwt.interfaces.DecodedJWT;
-import com.virtualpets.backend.exception.JwtAuthenticationException;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.security.TokenRevocationList;
+import com.virtualpets.backend.service.UserIdentityCache;
 import com.virtualpets.backend.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final TokenRevocationList revocationList;
+    private final UserIdentityCache identityCache;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, TokenRevocationList revocationList,
+                                   UserIdentityCache identityCache) {
         this.jwtUtil = jwtUtil;
+        this.revocationList = revocationList;
+        this.identityCache = identityCache;
     }
 
     @Override
@@ -46,20 +49,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            try {
-                jwtUtil.verifyToken(token);
+            AuthenticatedUser verified = jwtUtil.authenticate(token);
 
-                String username = jwtUtil.getUsername(token);
-                List<String> roles = jwtUtil.getRoles(token);
+            // Checked on every request, cached principal or not; a revoked token stays anonymous.
+            // Roles come from the identity cache by the token's user id rather than from the token,
+            // so a role change applies within the cache TTL; a deleted user stays anonymous too.
+            if (!revocationList.isRevoked(verified.getTokenId())) {
+                identityCache.findById(verified.getId()).ifPresent(identity -> {
+                    AuthenticatedUser principal = verified.withRoleMask(identity.roleMask());
+                    UsernamePasswordAuthenticationToken auth =
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
 
-                UsernamePasswordAuthenticationToken auth =
-                        new UsernamePasswordAuthenticationToken(username, null,
-                                roles.stream().map(SimpleGrantedAuthority::new).toList());
-
-                SecurityContextHolder.getContext().setAuthentication(auth);
-
-            } catch (JWTVerificationException ex) {
-                throw new JwtAuthenticationException("Invalid or expired JWT token");
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                });
             }
         }
         // If no token, just continue; Spring Security will handle access rules
@@ -0,0 +1,61 @@
+package com.virtualpets.backend.config;
+
+import com.virtualpets.backend.exception.TooManyRequestsException;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.security.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+
+    public RateLimitFilter(RateLimitService rateLimitService) {
+        this.rateLimitService = rateLimitService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String path = request.getRequestURI();
+        String clientIp = request.getRemoteAddr();
+
+        try {
+            if (path.startsWith("/auth")) {
+                rateLimitService.checkAuth(clientIp);
+            } else if (path.startsWith("/pets")) {
+                // Runs after JwtAuthenticationFilter, so the principal is already resolved
+                rateLimitService.checkPets(clientIp, currentPrincipal());
+            }
+        } catch (TooManyRequestsException ex) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+            response.setContentType("application/json");
+            response.getWriter().write(
+                    "{ \"timestamp\": \"" + java.time.LocalDateTime.now() + "\"," +
+                            "\"status\": 429," +
+                            "\"error\": \"Too Many Requests\"," +
+                            "\"message\": \"" + ex.getMessage() + "\" }"
+            );
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private AuthenticatedUser currentPrincipal() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal ? principal : null;
+    }
+}
@@ -1,6 +1,10 @@
 package com.virtualpets.backend.config;
 
+import com.virtualpets.backend.security.RateLimitService;
+import com.virtualpets.backend.security.TokenRevocationList;
+import com.virtualpets.backend.service.UserIdentityCache;
 import com.virtualpets.backend.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,6 +12,7 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -18,15 +23,23 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     private final JwtUtil jwtUtil;
+    private final RateLimitService rateLimitService;
+    private final TokenRevocationList revocationList;
+    private final UserIdentityCache identityCache;
 
-    public SecurityConfig(JwtUtil jwtUtil) {
+    public SecurityConfig(JwtUtil jwtUtil, RateLimitService rateLimitService, TokenRevocationList revocationList,
+                          UserIdentityCache identityCache) {
         this.jwtUtil = jwtUtil;
+        this.rateLimitService = rateLimitService;
+        this.revocationList = revocationList;
+        this.identityCache = identityCache;
     }
 
     @Bean
@@ -66,7 +79,8 @@ public class SecurityConfig {
                             );
                         })
                 )
-                .addFilterBefore(new JwtAuthenticationFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, revocationList, identityCache), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new RateLimitFilter(rateLimitService), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -77,15 +91,22 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:10}") int strength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // Hashes stored before the {bcrypt} prefix was introduced are plain BCrypt;
+        // upgradeEncoding() reports them (and any weaker cost) so login can re-encode them
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:3000")); // frontend URL
-        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        // Scripts can only read these from a cross-origin response when they are listed
+        configuration.setExposedHeaders(List.of("ETag", "Retry-After"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
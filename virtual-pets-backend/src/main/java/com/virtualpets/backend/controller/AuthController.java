@@ -1,31 +1,70 @@
 package com.virtualpets.backend.controller;
 
 import com.virtualpets.backend.dto.request.LoginRequest;
+import com.virtualpets.backend.dto.request.RefreshRequest;
 import com.virtualpets.backend.dto.request.RegisterRequest;
 import com.virtualpets.backend.dto.response.AuthResponse;
+import com.virtualpets.backend.exception.InvalidCredentialsException;
+import com.virtualpets.backend.security.RateLimitService;
 import com.virtualpets.backend.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
+    private final RateLimitService rateLimitService;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, RateLimitService rateLimitService) {
         this.authService = authService;
+        this.rateLimitService = rateLimitService;
     }
 
     @PostMapping("/register")
     @ResponseStatus(HttpStatus.CREATED)
-    public AuthResponse register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
         return authService.register(request);
     }
 
     @PostMapping("/login")
-    public AuthResponse login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                                 HttpServletRequest httpRequest) {
+        rateLimitService.checkLogin(request.username(), httpRequest.getRemoteAddr());
         return authService.login(request);
     }
+
+    @PostMapping("/refresh")
+    public AuthResponse refresh(@Valid @RequestBody RefreshRequest request) {
+        return authService.refresh(request);
+    }
+
+    // /auth/** bypasses the JWT filter, so the bearer token is read here
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authService.logout(bearerToken(authorization));
+    }
+
+    // Ends every login of the user, e.g. after a lost device
+    @PostMapping("/logout-all")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logoutAll(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authService.logoutEverywhere(bearerToken(authorization));
+    }
+
+    private static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            throw new InvalidCredentialsException("Missing bearer token");
+        }
+        return authorization.substring(BEARER_PREFIX.length());
+    }
 }
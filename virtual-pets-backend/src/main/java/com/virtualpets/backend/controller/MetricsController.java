@@ -0,0 +1,111 @@
+package com.virtualpets.backend.controller;
+
+import com.virtualpets.backend.security.PasswordHashingExecutor;
+import com.virtualpets.backend.security.RateLimitService;
+import com.virtualpets.backend.security.TokenBucketRateLimiter;
+import com.virtualpets.backend.security.TokenRevocationList;
+import com.virtualpets.backend.security.VerifiedTokenCache;
+import com.virtualpets.backend.service.PetNameIndex;
+import com.virtualpets.backend.service.PetOwnerRanking;
+import com.virtualpets.backend.service.PetPageCache;
+import com.virtualpets.backend.service.PetStatsCounters;
+import com.virtualpets.backend.service.RoleRegistry;
+import com.virtualpets.backend.service.UserIdentityCache;
+import com.virtualpets.backend.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/metrics")
+@SecurityRequirement(name = "bearerAuth")
+@RequiredArgsConstructor
+@Tag(name = "Metrics", description = "Admin-only in-memory counters")
+public class MetricsController {
+
+    private final JwtUtil jwtUtil;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final RateLimitService rateLimitService;
+    private final TokenRevocationList revocationList;
+    private final PetPageCache petPageCache;
+    private final PetNameIndex petNameIndex;
+    private final PetStatsCounters petStatsCounters;
+    private final PetOwnerRanking ownerRanking;
+    private final UserIdentityCache identityCache;
+    private final RoleRegistry roleRegistry;
+    private final CacheManager cacheManager;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get counters", description = "Token cache, revocation, identity cache, user caches, pet page cache, pet name index, pet statistics, top-owners ranking, password hashing and rate limiter counters (Admin only)")
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+
+        VerifiedTokenCache tokenCache = jwtUtil.getTokenCache();
+        metrics.put("tokenCache.size", (long) tokenCache.size());
+        metrics.put("tokenCache.hits", tokenCache.hits());
+        metrics.put("tokenCache.misses", tokenCache.misses());
+        metrics.put("tokenCache.evictions", tokenCache.evictions());
+
+        metrics.put("revocation.size", (long) revocationList.size());
+        metrics.put("revocation.bloomNegatives", revocationList.bloomNegatives());
+        metrics.put("revocation.exactLookups", revocationList.exactLookups());
+
+        metrics.put("identityCache.size", (long) identityCache.size());
+        metrics.put("identityCache.hits", identityCache.hits());
+        metrics.put("identityCache.misses", identityCache.misses());
+        metrics.put("roleRegistry.size", (long) roleRegistry.size());
+
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                metrics.put("cache." + name + ".size", cache.getNativeCache().estimatedSize());
+                metrics.put("cache." + name + ".hits", stats.hitCount());
+                metrics.put("cache." + name + ".misses", stats.missCount());
+                metrics.put("cache." + name + ".evictions", stats.evictionCount());
+            }
+        }
+
+        metrics.put("petPageCache.entries", (long) petPageCache.size());
+        metrics.put("petPageCache.bytes", petPageCache.usedBytes());
+        metrics.put("petPageCache.maxBytes", petPageCache.maxBytes());
+        metrics.put("petPageCache.hits", petPageCache.hits());
+        metrics.put("petPageCache.misses", petPageCache.misses());
+        metrics.put("petPageCache.hitRatioPerMille", petPageCache.hitRatioPerMille());
+        metrics.put("petPageCache.evictions", petPageCache.evictions());
+        metrics.put("petPageCache.invalidations", petPageCache.invalidations());
+        metrics.put("petPageCache.oversized", petPageCache.oversized());
+
+        metrics.put("petNameIndex.owners", (long) petNameIndex.ownerCount());
+        metrics.put("petNameIndex.globalSize", petNameIndex.globalSize());
+        metrics.put("petNameIndex.loads", petNameIndex.loads());
+        metrics.put("petNameIndex.databaseLookups", petNameIndex.databaseLookups());
+
+        metrics.put("petStats.reconciles", petStatsCounters.reconciles());
+        metrics.put("petStats.lastDrift", petStatsCounters.lastDrift());
+
+        metrics.put("topOwners.size", (long) ownerRanking.size());
+        metrics.put("topOwners.reloads", ownerRanking.reloads());
+
+        metrics.put("passwordHashing.queued", (long) hashingExecutor.queueSize());
+        metrics.put("passwordHashing.rejected", hashingExecutor.rejectedCount());
+
+        for (TokenBucketRateLimiter limiter : rateLimitService.limiters()) {
+            metrics.put("rateLimit." + limiter.name() + ".allowed", limiter.allowedCount());
+            metrics.put("rateLimit." + limiter.name() + ".rejected", limiter.rejectedCount());
+            metrics.put("rateLimit." + limiter.name() + ".keys", (long) limiter.trackedKeys());
+        }
+        return metrics;
+    }
+}
@@ -1,16 +1,54 @@
 package com.virtualpets.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.virtualpets.backend.dto.request.PetBatchRequest;
+import com.virtualpets.backend.dto.request.PetBulkUpdateRequest;
+import com.virtualpets.backend.dto.request.PetDataFormat;
+import com.virtualpets.backend.dto.request.PetFilter;
+import com.virtualpets.backend.dto.request.PetPatchRequest;
 import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.request.PetSortField;
+import com.virtualpets.backend.dto.request.PetTransferRequest;
+import com.virtualpets.backend.dto.response.BulkOperationResponse;
+import com.virtualpets.backend.dto.response.CursorPageResponse;
+import com.virtualpets.backend.dto.response.PetBatchResponse;
+import com.virtualpets.backend.dto.response.PetImportResponse;
 import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.dto.response.PetStatsResponse;
+import com.virtualpets.backend.dto.response.PetSuggestion;
+import com.virtualpets.backend.dto.response.SliceResponse;
+import com.virtualpets.backend.exception.PreconditionFailedException;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetExporter;
+import com.virtualpets.backend.service.PetImporter;
+import com.virtualpets.backend.service.PetPageCache;
 import com.virtualpets.backend.service.PetService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 
 @RestController
@@ -19,55 +57,276 @@ public class PetController {
 
     private final PetService petService;
 
-    public PetController(PetService petService) {
+    private final PetPageCache pageCache;
+    private final ObjectMapper objectMapper;
+    private final PetExporter petExporter;
+    private final PetImporter petImporter;
+
+    public PetController(PetService petService, PetPageCache pageCache, ObjectMapper objectMapper,
+                         PetExporter petExporter, PetImporter petImporter) {
         this.petService = petService;
+        this.pageCache = pageCache;
+        this.objectMapper = objectMapper;
+        this.petExporter = petExporter;
+        this.petImporter = petImporter;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public PetResponse createPet(
             @Valid @RequestBody PetRequest petRequest,
-            Authentication authentication) {
-        String username = authentication.getName();
-        return petService.createPet(petRequest, username);
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return petService.createPet(petRequest, principal);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public PetBatchResponse createPets(
+            @Valid @RequestBody PetBatchRequest batchRequest,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return petService.createPets(batchRequest.pets(), principal);
+    }
+
+    // Owners' pages are served from the serialized page cache; admins' span all owners and are not cached.
+    // Every listing mode takes the same optional filters (type, minAge, maxAge, namePrefix, nameContains)
     @GetMapping
     public Page<PetResponse> getAllPets(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            Authentication authentication) {
+            @Valid PetFilter filter,
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            ServletWebRequest webRequest,
+            HttpServletResponse response) throws IOException {
 
-        String username = authentication.getName();
-        Sort sort = sortDir.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        if (listingNotModified(principal, webRequest)) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(page, size, listingSort(sortBy, sortDir));
+        if (principal.isAdmin()) {
+            return petService.getAllPets(principal, filter, pageable);
+        }
 
-        return petService.getAllPets(username, pageable);
+        String query = "page:" + page + ":" + size + ":" + pageable.getSort() + ":" + filter;
+        writeJson(response, pageCache.getOrLoad(principal.getId(), query,
+                () -> objectMapper.writeValueAsBytes(petService.getAllPets(principal, filter, pageable))));
+        return null;
     }
 
+    // Count-free mode for infinite scroll; totals, when asked for, come from a cached count
+    @GetMapping(params = "mode=slice")
+    public SliceResponse<PetResponse> getPetSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @Valid PetFilter filter,
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            ServletWebRequest webRequest) {
+
+        if (listingNotModified(principal, webRequest)) {
+            return null;
+        }
+        return petService.getPetSlice(principal, filter, PageRequest.of(page, size, listingSort(sortBy, sortDir)),
+                includeTotal);
+    }
+
+    // Keyset mode, selected by the presence of ?cursor (empty for the first page)
+    @GetMapping(params = "cursor")
+    public CursorPageResponse<PetResponse> getPetsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @Valid PetFilter filter,
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            ServletWebRequest webRequest,
+            HttpServletResponse response) throws IOException {
+
+        if (listingNotModified(principal, webRequest)) {
+            return null;
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        PetSortField sortField = PetSortField.fromParam(sortBy);
+        if (principal.isAdmin()) {
+            return petService.getPetsAfter(principal, filter, sortField, direction, cursor, size);
+        }
+
+        String query = "cursor:" + (cursor == null ? "" : cursor) + ":" + size + ":" + sortField + ":" + direction
+                + ":" + filter;
+        writeJson(response, pageCache.getOrLoad(principal.getId(), query, () -> objectMapper.writeValueAsBytes(
+                petService.getPetsAfter(principal, filter, sortField, direction, cursor, size))));
+        return null;
+    }
+
+    // Type-ahead on pet names, answered from memory; case-insensitive and in name order
+    @GetMapping("/suggest")
+    public List<PetSuggestion> suggestPets(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return petService.suggestPets(prefix, limit, principal);
+    }
+
+    // Totals by type and age bucket from in-memory counters; no query runs per request
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public PetStatsResponse getPetStats(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return petService.getPetStats(principal);
+    }
+
+    // A conditional GET is answered from the version alone; the pet is only read and
+    // serialized when the client's copy is stale
     @GetMapping("/{id}")
-    public PetResponse getPetById(
+    public ResponseEntity<PetResponse> getPetById(
             @PathVariable Long id,
-            Authentication authentication) {
-        String username = authentication.getName();
-        return petService.getPetById(id, username);
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            ServletWebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = petService.findPetVersion(id, principal);
+            if (version.isPresent() && webRequest.checkNotModified(String.valueOf(version.get()))) {
+                return null;
+            }
+        }
+        return withETag(petService.getPetById(id, principal));
     }
 
     @PutMapping("/{id}")
-    public PetResponse updatePet(
+    public ResponseEntity<PetResponse> updatePet(
             @PathVariable Long id,
             @Valid @RequestBody PetRequest petRequest,
-            Authentication authentication) {
-        String username = authentication.getName();
-        return petService.updatePet(id, petRequest, username);
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return withETag(petService.updatePet(id, petRequest, expectedVersion(ifMatch), principal));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<PetResponse> patchPet(
+            @PathVariable Long id,
+            @Valid @RequestBody PetPatchRequest patchRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return withETag(petService.patchPet(id, patchRequest, expectedVersion(ifMatch), principal));
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deletePet(@PathVariable Long id, Authentication authentication) {
-        String username = authentication.getName();
-        petService.deletePet(id, username);
+    public void deletePet(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser principal) {
+        petService.deletePet(id, principal);
+    }
+
+    // Set-based operations: each runs as one statement and reports how many pets it changed
+    @PatchMapping
+    public BulkOperationResponse updatePets(
+            @Valid @RequestBody PetBulkUpdateRequest request,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return petService.updatePets(request, principal);
+    }
+
+    @DeleteMapping
+    public BulkOperationResponse deletePets(
+            @RequestParam List<Long> ids,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return petService.deletePets(ids, principal);
+    }
+
+    @PostMapping("/transfer")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkOperationResponse transferPets(
+            @Valid @RequestBody PetTransferRequest request,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return petService.transferPets(request, principal);
+    }
+
+    // Reads the body as it arrives and inserts in chunks; send Content-Encoding: gzip for compressed uploads
+    @PostMapping("/import")
+    public PetImportResponse importPets(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            HttpServletRequest request) throws IOException {
+
+        PetDataFormat importFormat = PetDataFormat.fromParam(format);
+        InputStream body = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            body = new GZIPInputStream(body, 64 * 1024);
+        }
+        return petImporter.importPets(principal, importFormat, body);
+    }
+
+    // Streams the whole table as it is read; nothing is paged or held in memory
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportPets(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            HttpServletResponse response) throws IOException {
+
+        PetDataFormat exportFormat = PetDataFormat.fromParam(format);
+        String filename = "pets." + exportFormat.extension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+
+        if (gzip) {
+            GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+            petExporter.export(principal, exportFormat, out);
+            out.finish();
+        } else {
+            petExporter.export(principal, exportFormat, response.getOutputStream());
+        }
+    }
+
+    // --- Helpers ---
+    private static void writeJson(HttpServletResponse response, ByteBuffer json) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(json.remaining());
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        while (json.hasRemaining()) {
+            channel.write(json);
+        }
+    }
+
+    // Owner listings carry an ETag built from the owner's cached pet stats plus the query,
+    // so a poll that matches costs no pet query and no serialization
+    private boolean listingNotModified(AuthenticatedUser principal, ServletWebRequest webRequest) {
+        String tag = petService.getListingTag(principal);
+        if (tag == null) {
+            return false;
+        }
+        String query = webRequest.getRequest().getQueryString();
+        return webRequest.checkNotModified(query == null ? tag : tag + "-" + Integer.toHexString(query.hashCode()));
+    }
+
+    private static ResponseEntity<PetResponse> withETag(PetResponse pet) {
+        return ResponseEntity.ok().eTag(String.valueOf(pet.version())).body(pet);
+    }
+
+    // If-Match holds the ETag the client last saw; absent or "*" means an unconditional write.
+    // Weak or unparseable tags can never match under strong comparison
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the precondition failure below
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version of this pet");
+    }
+
+    // Only whitelisted, indexed columns; id breaks ties so rows cannot repeat or go missing between pages
+    private static Sort listingSort(String sortBy, String sortDir) {
+        PetSortField sortField = PetSortField.fromParam(sortBy);
+        Sort.Direction direction = sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortField.attribute());
+        return sortField == PetSortField.ID ? sort : sort.and(Sort.by(direction, "id"));
     }
 }
@@ -1,17 +1,19 @@
 package com.virtualpets.backend.controller;
 
+import com.virtualpets.backend.dto.response.TopOwnerResponse;
 import com.virtualpets.backend.dto.response.UserResponse;
+import com.virtualpets.backend.security.AuthenticatedUser;
 import com.virtualpets.backend.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Collection;
+import org.springframework.data.domain.Page;
+
 import java.util.List;
 
 @RestController
@@ -25,9 +27,27 @@ public class UserController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all users", description = "Fetch all registered users (Admin only)")
-    public List<UserResponse> getAllUsers(Authentication auth) {
-        Collection<? extends GrantedAuthority> roles = auth.getAuthorities();
-        return userService.getAllUsers(roles);
+    @Operation(summary = "Get all users", description = "Fetch registered users one page at a time, ordered by id (Admin only)")
+    public Page<UserResponse> getAllUsers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return userService.getAllUsers(principal, page, size);
+    }
+
+    @GetMapping("/top-owners")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get top pet owners", description = "Users owning the most pets, most first, from an in-memory ranking (Admin only)")
+    public List<TopOwnerResponse> getTopOwners(
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return userService.getTopOwners(principal, limit);
+    }
+
+    @GetMapping("/{username}")
+    @Operation(summary = "Get a user", description = "Fetch one user by username (own account, or any account for admins)")
+    public UserResponse getUser(@PathVariable String username,
+                                @AuthenticationPrincipal AuthenticatedUser principal) {
+        return userService.getUserByUsername(username, principal);
     }
 }
@@ -0,0 +1,17 @@
+package com.virtualpets.backend.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Request DTO for creating several pets in one call")
+public record PetBatchRequest(
+
+        @Schema(description = "Pets to create, all owned by the caller")
+        @NotEmpty(message = "At least one pet is required")
+        @Size(max = 500, message = "At most 500 pets per batch")
+        List<@Valid PetRequest> pets
+) { }
@@ -0,0 +1,63 @@
+package com.virtualpets.backend.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.virtualpets.backend.model.Pet.PetType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Request DTO for updating many pets with one statement. Pets are selected by id list "
+        + "and/or filter; only the non-null change fields are written.")
+public record PetBulkUpdateRequest(
+
+        @Schema(description = "Ids of the pets to update", example = "[1, 2, 3]")
+        @Size(max = 1000, message = "At most 1000 ids per request")
+        List<Long> ids,
+
+        @Schema(description = "Only update pets of this type", example = "DOG")
+        PetType filterType,
+
+        @Schema(description = "Only update pets at least this old", example = "1")
+        @Min(value = 0, message = "filterMinAge must be at least 0")
+        Integer filterMinAge,
+
+        @Schema(description = "Only update pets at most this old", example = "10")
+        @Min(value = 0, message = "filterMaxAge must be at least 0")
+        Integer filterMaxAge,
+
+        @Schema(description = "New name", example = "Buddy")
+        @Size(min = 1, max = 255, message = "Name must be between 1 and 255 characters")
+        @Pattern(regexp = ".*\\S.*", message = "Name must not be blank")
+        String name,
+
+        @Schema(description = "New type", example = "CAT")
+        PetType type,
+
+        @Schema(description = "New age", example = "4")
+        @Min(value = 0, message = "Age must be at least 0")
+        Integer age
+) {
+
+    // Refuses an unfiltered request, which would otherwise rewrite every pet the caller can reach
+    @JsonIgnore
+    @AssertTrue(message = "Provide ids or at least one filter")
+    public boolean isSelectionPresent() {
+        return (ids != null && !ids.isEmpty()) || filterType != null || filterMinAge != null || filterMaxAge != null;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "filterMinAge must not be greater than filterMaxAge")
+    public boolean isFilterAgeRangeValid() {
+        return filterMinAge == null || filterMaxAge == null || filterMinAge <= filterMaxAge;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Provide at least one field to change")
+    public boolean isChangePresent() {
+        return name != null || type != null || age != null;
+    }
+}
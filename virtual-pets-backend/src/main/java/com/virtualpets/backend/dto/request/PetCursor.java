@@ -0,0 +1,47 @@
+package com.virtualpets.backend.dto.request;
+
+import com.virtualpets.backend.dto.response.PetResponse;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last pet of a keyset page: the sort key and id of that row, plus the
+ * sort it was produced with so a cursor cannot be replayed against a different ordering.
+ * Clients only see the Base64 form.
+ */
+public record PetCursor(PetSortField sortField, Sort.Direction direction, long lastId, String lastValue) {
+
+    private static final String SEPARATOR = ",";
+
+    public static PetCursor after(PetSortField sortField, Sort.Direction direction, PetResponse last) {
+        return new PetCursor(sortField, direction, last.id(), sortField.keyOf(last));
+    }
+
+    public String encode() {
+        String raw = sortField.name() + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PetCursor decode(String cursor, PetSortField sortField, Sort.Direction direction) {
+        PetCursor decoded;
+        try {
+            // The sort key goes last so values containing the separator survive the split
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 4);
+            decoded = new PetCursor(
+                    PetSortField.valueOf(parts[0]),
+                    Sort.Direction.valueOf(parts[1]),
+                    Long.parseLong(parts[2]),
+                    parts[3]);
+            decoded.sortField.parse(decoded.lastValue);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (decoded.sortField != sortField || decoded.direction != direction) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return decoded;
+    }
+}
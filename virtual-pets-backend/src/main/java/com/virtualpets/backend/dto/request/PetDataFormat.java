@@ -0,0 +1,36 @@
+package com.virtualpets.backend.dto.request;
+
+/**
+ * Line formats for GET /pets/export and POST /pets/import. NDJSON holds one pet object
+ * per line; CSV has a header row followed by one pet per line. Exported files can be
+ * imported again: the import ignores id, ownerUsername and version.
+ */
+public enum PetDataFormat {
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv;charset=UTF-8");
+
+    private final String extension;
+    private final String contentType;
+
+    PetDataFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static PetDataFormat fromParam(String format) {
+        for (PetDataFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+}
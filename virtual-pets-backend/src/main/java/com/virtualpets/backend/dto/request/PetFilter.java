@@ -0,0 +1,53 @@
+package com.virtualpets.backend.dto.request;
+
+import com.virtualpets.backend.model.Pet.PetType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Schema(description = "Optional GET /pets filters; all given conditions must match")
+public record PetFilter(
+
+        @Schema(description = "Only these types; repeat the parameter for several", example = "DOG")
+        Set<PetType> type,
+
+        @Schema(description = "Minimum age, inclusive", example = "1")
+        @Min(value = 0, message = "minAge must be at least 0")
+        Integer minAge,
+
+        @Schema(description = "Maximum age, inclusive", example = "10")
+        @Min(value = 0, message = "maxAge must be at least 0")
+        Integer maxAge,
+
+        @Schema(description = "Name starts with this text", example = "Bu")
+        @Size(max = 255, message = "namePrefix must be at most 255 characters")
+        String namePrefix,
+
+        @Schema(description = "Name contains this text; cannot use an index, so prefer namePrefix", example = "dd")
+        @Size(max = 255, message = "nameContains must be at most 255 characters")
+        String nameContains
+) {
+
+    public static final PetFilter NONE = new PetFilter(null, null, null, null, null);
+
+    // Normalised so equal filters print the same, which keeps page cache keys stable
+    public PetFilter {
+        type = type == null || type.isEmpty() ? null : Collections.unmodifiableSet(EnumSet.copyOf(type));
+        namePrefix = namePrefix == null || namePrefix.isEmpty() ? null : namePrefix;
+        nameContains = nameContains == null || nameContains.isEmpty() ? null : nameContains;
+    }
+
+    public boolean isEmpty() {
+        return type == null && minAge == null && maxAge == null && namePrefix == null && nameContains == null;
+    }
+
+    @AssertTrue(message = "minAge must not be greater than maxAge")
+    public boolean isAgeRangeValid() {
+        return minAge == null || maxAge == null || minAge <= maxAge;
+    }
+}
@@ -0,0 +1,23 @@
+package com.virtualpets.backend.dto.request;
+
+import com.virtualpets.backend.model.Pet.PetType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "Request DTO for a partial pet update; omitted or null fields are left unchanged")
+public record PetPatchRequest(
+
+        @Schema(description = "New name", example = "Buddy")
+        @Size(min = 1, max = 255, message = "Name must be between 1 and 255 characters")
+        @Pattern(regexp = ".*\\S.*", message = "Name must not be blank")
+        String name,
+
+        @Schema(description = "New type", example = "DOG")
+        PetType type,
+
+        @Schema(description = "New age", example = "4")
+        @Min(value = 0, message = "Age must be at least 0")
+        Integer age
+) { }
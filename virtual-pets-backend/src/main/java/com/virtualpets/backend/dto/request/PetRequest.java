@@ -5,12 +5,14 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 @Schema(description = "Request DTO for creating or updating a pet")
 public record PetRequest(
 
         @Schema(description = "Name of the pet", example = "Buddy")
         @NotBlank(message = "Name is mandatory")
+        @Size(min = 1, max = 255, message = "Name must be between 1 and 255 characters")
         String name,
 
         @Schema(description = "Type of the pet", example = "DOG")
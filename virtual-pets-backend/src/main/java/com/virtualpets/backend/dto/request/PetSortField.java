@@ -0,0 +1,51 @@
+package com.virtualpets.backend.dto.request;
+
+import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.model.Pet.PetType;
+
+import java.util.function.Function;
+
+/**
+ * Columns GET /pets can be sorted by; anything else is rejected before it reaches a query.
+ * Each one is backed by a {@code (sortKey, id)} and an {@code (owner_id, sortKey, id)}
+ * index (see V2__pet_listing_indexes.sql), so no listing has to sort the table.
+ */
+public enum PetSortField {
+    ID("id", Long::valueOf, response -> String.valueOf(response.id())),
+    NAME("name", Function.identity(), PetResponse::name),
+    TYPE("type", PetType::valueOf, response -> response.type().name()),
+    AGE("age", Integer::valueOf, response -> String.valueOf(response.age()));
+
+    private final String attribute;
+    private final Function<String, ? extends Comparable<?>> parser;
+    private final Function<PetResponse, String> extractor;
+
+    PetSortField(String attribute,
+                 Function<String, ? extends Comparable<?>> parser,
+                 Function<PetResponse, String> extractor) {
+        this.attribute = attribute;
+        this.parser = parser;
+        this.extractor = extractor;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    public String keyOf(PetResponse response) {
+        return extractor.apply(response);
+    }
+
+    public static PetSortField fromParam(String sortBy) {
+        for (PetSortField field : values()) {
+            if (field.attribute.equalsIgnoreCase(sortBy)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sortBy value: " + sortBy);
+    }
+}
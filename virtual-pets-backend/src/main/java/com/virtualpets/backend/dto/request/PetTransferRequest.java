@@ -0,0 +1,16 @@
+package com.virtualpets.backend.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "Request DTO for moving every pet of one user to another (admin only)")
+public record PetTransferRequest(
+
+        @Schema(description = "Current owner", example = "alice")
+        @NotBlank(message = "fromUsername is mandatory")
+        String fromUsername,
+
+        @Schema(description = "New owner", example = "bob")
+        @NotBlank(message = "toUsername is mandatory")
+        String toUsername
+) { }
@@ -0,0 +1,12 @@
+package com.virtualpets.backend.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "Request DTO for exchanging a refresh token")
+public record RefreshRequest(
+
+        @Schema(description = "Refresh token returned by login, register or a previous refresh")
+        @NotBlank(message = "Refresh token is mandatory")
+        String refreshToken
+) { }
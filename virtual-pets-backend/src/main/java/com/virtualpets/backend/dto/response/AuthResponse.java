@@ -5,5 +5,6 @@ import java.util.Set;
 public record AuthResponse(
         String username,
         String token,
+        String refreshToken,
         Set<String> roles
 ) {}
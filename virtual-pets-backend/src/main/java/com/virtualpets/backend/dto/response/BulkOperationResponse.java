@@ -0,0 +1,9 @@
+package com.virtualpets.backend.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a bulk update, delete or transfer")
+public record BulkOperationResponse(
+        @Schema(description = "Number of pets changed; pets the caller may not manage are not counted", example = "3")
+        int affected
+) {}
@@ -0,0 +1,17 @@
+package com.virtualpets.backend.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One keyset page; pass nextCursor back as the cursor parameter to continue")
+public record CursorPageResponse<T>(
+        @Schema(description = "Items in this page")
+        List<T> content,
+
+        @Schema(description = "Number of items in this page", example = "10")
+        int size,
+
+        @Schema(description = "Opaque cursor for the next page, null on the last page")
+        String nextCursor
+) {}
@@ -0,0 +1,14 @@
+package com.virtualpets.backend.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Result of a batch creation; pets are returned in request order")
+public record PetBatchResponse(
+        @Schema(description = "Number of pets created", example = "3")
+        int created,
+
+        @Schema(description = "Created pets with their new ids")
+        List<PetResponse> pets
+) {}
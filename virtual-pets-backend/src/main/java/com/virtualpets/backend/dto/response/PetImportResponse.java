@@ -0,0 +1,26 @@
+package com.virtualpets.backend.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of a streaming import; only the first rejections are listed")
+public record PetImportResponse(
+        @Schema(description = "Lines inserted as pets", example = "99998")
+        long accepted,
+
+        @Schema(description = "Lines skipped because they could not be parsed, failed validation or could not be inserted", example = "2")
+        long rejected,
+
+        @Schema(description = "The first rejected lines with the reason for each")
+        List<Rejection> rejections
+) {
+    @Schema(description = "One rejected input line")
+    public record Rejection(
+            @Schema(description = "1-based line number in the upload", example = "42")
+            long line,
+
+            @Schema(description = "Why the line was skipped", example = "age: Age must be at least 0")
+            String reason
+    ) {}
+}
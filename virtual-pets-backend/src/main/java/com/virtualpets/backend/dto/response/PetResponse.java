@@ -18,5 +18,8 @@ public record PetResponse(
         Integer age,
 
         @Schema(description = "Username of the pet owner", example = "alice")
-        String ownerUsername
+        String ownerUsername,
+
+        @Schema(description = "Optimistic-lock version, also sent as the ETag", example = "0")
+        Long version
 ) {}
@@ -0,0 +1,22 @@
+package com.virtualpets.backend.dto.response;
+
+import com.virtualpets.backend.model.Pet.PetType;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Schema(description = "Pet totals kept in memory and reconciled with the database in the background")
+public record PetStatsResponse(
+        @Schema(description = "Number of pets", example = "1250")
+        long total,
+
+        @Schema(description = "Number of pets per type, every type included")
+        Map<PetType, Long> byType,
+
+        @Schema(description = "Number of pets per age bucket, youngest first", example = "{\"0\": 120, \"3-4\": 310}")
+        Map<String, Long> byAge,
+
+        @Schema(description = "When the counters were last checked against the database")
+        Instant reconciledAt
+) {}
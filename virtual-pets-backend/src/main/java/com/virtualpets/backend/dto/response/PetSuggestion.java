@@ -0,0 +1,12 @@
+package com.virtualpets.backend.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Pet name match for type-ahead")
+public record PetSuggestion(
+        @Schema(description = "ID of the pet", example = "1")
+        Long id,
+
+        @Schema(description = "Name of the pet", example = "Sparky")
+        String name
+) {}
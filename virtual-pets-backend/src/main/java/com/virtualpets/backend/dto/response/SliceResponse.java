@@ -0,0 +1,23 @@
+package com.virtualpets.backend.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of results without an exact total; hasNext comes from reading one extra row")
+public record SliceResponse<T>(
+        @Schema(description = "Items in this page")
+        List<T> content,
+
+        @Schema(description = "Zero-based page number", example = "0")
+        int number,
+
+        @Schema(description = "Requested page size", example = "10")
+        int size,
+
+        @Schema(description = "Whether another page follows")
+        boolean hasNext,
+
+        @Schema(description = "Cached total, only when includeTotal=true; may lag recent writes", example = "42")
+        Long approximateTotal
+) {}
@@ -0,0 +1,15 @@
+package com.virtualpets.backend.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "One user in the top-owners ranking")
+public record TopOwnerResponse(
+        @Schema(description = "User ID", example = "1")
+        Long id,
+
+        @Schema(description = "Username", example = "alice")
+        String username,
+
+        @Schema(description = "Number of pets the user owns", example = "42")
+        long petCount
+) {}
@@ -13,5 +13,8 @@ public record UserResponse(
         String username,
 
         @Schema(description = "Roles assigned to the user")
-        Set<String> roles
+        Set<String> roles,
+
+        @Schema(description = "Number of pets the user owns; cached user pages may lag by the user cache TTL", example = "3")
+        long petCount
 ) {}
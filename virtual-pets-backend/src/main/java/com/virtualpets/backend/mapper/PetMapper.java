@@ -6,12 +6,18 @@ import com.virtualpets.backend.model.Pet;
 public class PetMapper {
 
     public static PetResponse toResponse(Pet pet) {
+        return toResponse(pet, pet.getOwner().getUsername());
+    }
+
+    // Used when the owner's username is already known, to avoid initializing the lazy owner
+    public static PetResponse toResponse(Pet pet, String ownerUsername) {
         return new PetResponse(
                 pet.getId(),
                 pet.getName(),
                 pet.getType(),  // updated to enum
                 pet.getAge(),
-                pet.getOwner().getUsername()
+                ownerUsername,
+                pet.getVersion()
         );
     }
 }
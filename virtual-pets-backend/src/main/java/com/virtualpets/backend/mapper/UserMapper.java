@@ -14,6 +14,6 @@ public class UserMapper {
                 .map(role -> role.getName())
                 .collect(Collectors.toSet());
 
-        return new UserResponse(user.getId(), user.getUsername(), roleNames);
+        return new UserResponse(user.getId(), user.getUsername(), roleNames, user.getPetCount());
     }
 }
@@ -2,9 +2,14 @@ package com.virtualpets.backend.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "pets")
+@DynamicUpdate // entity updates (PATCH) write only the columns that changed
 @Getter
 @Setter
 @NoArgsConstructor
@@ -12,8 +17,12 @@ import lombok.*;
 @Builder
 public class Pet {
 
+    // Ids come from a pooled table generator rather than IDENTITY: Hibernate can only
+    // batch inserts when it knows the id before the row is written
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pet_ids")
+    @TableGenerator(name = "pet_ids", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "pets", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -30,6 +39,14 @@ public class Pet {
     @JoinColumn(name = "owner_id")
     private User owner;
 
+    // Checked and bumped on every entity update; bulk JPQL statements bump it explicitly
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+
     public enum PetType {
         DOG,
         CAT,
@@ -42,11 +59,8 @@ public class Pet {
     }
 
     // --- domain logic for permissions ---
-    public boolean isOwner(User user) {
-        return this.owner != null && this.owner.equals(user);
-    }
-
-    public boolean canBeManagedBy(User user) {
-        return !isOwner(user) && (user == null || !user.hasRole("ROLE_ADMIN"));
+    // Compares ids only, so an uninitialized owner proxy is not loaded
+    public boolean isOwnedBy(Long userId) {
+        return this.owner != null && userId != null && userId.equals(this.owner.getId());
     }
 }
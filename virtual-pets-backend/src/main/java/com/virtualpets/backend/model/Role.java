@@ -1,5 +1,6 @@
 package com.virtualpets.backend.model;
 
+import com.virtualpets.backend.service.IdentityChangeListener;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -9,6 +10,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "roles")
+@EntityListeners(IdentityChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,4 +26,10 @@ public class Role {
     @Column(unique = true, nullable = false)
     @Schema(description = "Name of the role", example = "ROLE_ADMIN")
     private String name; // ROLE_ADMIN, ROLE_USER
+
+    // Bit of this role in the RoleName registry, or 0 for a name the registry does not know
+    public int mask() {
+        RoleName role = RoleName.fromName(name);
+        return role == null ? 0 : role.mask();
+    }
 }
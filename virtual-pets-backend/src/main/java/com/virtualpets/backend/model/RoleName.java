@@ -0,0 +1,81 @@
+package com.virtualpets.backend.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fixed registry of known roles. Each role owns one bit (its ordinal), so a user's
+ * roles fit in an int that is carried in the JWT and checked with a single AND.
+ * Only append new constants: reordering would change the meaning of issued tokens.
+ */
+public enum RoleName {
+    ROLE_USER,
+    ROLE_ADMIN;
+
+    private static final RoleName[] VALUES = values();
+    private static final Map<String, RoleName> BY_NAME = Stream.of(VALUES)
+            .collect(Collectors.toUnmodifiableMap(Enum::name, Function.identity()));
+
+    // Every possible mask is precomputed, so mapping a mask to authorities allocates nothing
+    private static final List<List<String>> NAMES_BY_MASK = new ArrayList<>();
+    private static final List<List<GrantedAuthority>> AUTHORITIES_BY_MASK = new ArrayList<>();
+
+    static {
+        for (int mask = 0; mask < 1 << VALUES.length; mask++) {
+            List<String> names = new ArrayList<>();
+            for (RoleName role : VALUES) {
+                if ((mask & role.mask()) != 0) {
+                    names.add(role.name());
+                }
+            }
+            NAMES_BY_MASK.add(List.copyOf(names));
+            AUTHORITIES_BY_MASK.add(names.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList());
+        }
+    }
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public boolean isIn(int mask) {
+        return (mask & mask()) != 0;
+    }
+
+    public static RoleName fromName(String name) {
+        return BY_NAME.get(name);
+    }
+
+    // Unknown role names are ignored; they carry no permissions in this application
+    public static int maskOf(Collection<String> names) {
+        int mask = 0;
+        if (names != null) {
+            for (String name : names) {
+                RoleName role = BY_NAME.get(name);
+                if (role != null) {
+                    mask |= role.mask();
+                }
+            }
+        }
+        return mask;
+    }
+
+    public static List<String> namesOf(int mask) {
+        return NAMES_BY_MASK.get(mask & allMask());
+    }
+
+    public static List<GrantedAuthority> authoritiesOf(int mask) {
+        return AUTHORITIES_BY_MASK.get(mask & allMask());
+    }
+
+    private static int allMask() {
+        return (1 << VALUES.length) - 1;
+    }
+}
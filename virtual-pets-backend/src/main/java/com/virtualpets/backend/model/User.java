@@ -1,5 +1,6 @@
 package com.virtualpets.backend.model;
 
+import com.virtualpets.backend.service.IdentityChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -8,6 +9,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(IdentityChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -33,8 +35,39 @@ public class User {
     )
     private Set<Role> roles = new HashSet<>();
 
+    // Only ever written by the increment statements in UserRepository; entity saves leave it alone
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long petCount;
+
+    // Bitmask of RoleName bits, derived from roles on first use; 0 means "not computed yet"
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int roleMask;
+
+    public void setRoles(Set<Role> roles) {
+        this.roles = roles;
+        this.roleMask = 0;
+    }
+
     // --- domain logic ---
+    public int getRoleMask() {
+        if (roleMask == 0 && roles != null) {
+            int mask = 0;
+            for (Role role : roles) {
+                mask |= role.mask();
+            }
+            roleMask = mask;
+        }
+        return roleMask;
+    }
+
+    public boolean hasRole(RoleName role) {
+        return role.isIn(getRoleMask());
+    }
+
     public boolean hasRole(String roleName) {
-        return roles.stream().anyMatch(role -> role.getName().equals(roleName));
+        RoleName role = RoleName.fromName(roleName);
+        return role != null && hasRole(role);
     }
 }
@@ -0,0 +1,6 @@
+package com.virtualpets.backend.repository;
+
+import com.virtualpets.backend.model.Pet.PetType;
+
+// A pet row read under a write lock: what a delete or full update needs to account for it
+public record LockedPet(Long id, Long ownerId, PetType type, Integer age, Long version) { }
@@ -0,0 +1,6 @@
+package com.virtualpets.backend.repository;
+
+import java.time.Instant;
+
+// One aggregate row per owner: how many pets, and when the most recent one last changed
+public record OwnerPetStats(long count, Instant lastModified) { }
@@ -1,12 +1,117 @@
 package com.virtualpets.backend.repository;
 
+import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.dto.response.PetSuggestion;
 import com.virtualpets.backend.model.Pet;
+import com.virtualpets.backend.model.Pet.PetType;
 import com.virtualpets.backend.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface PetRepository extends JpaRepository<Pet, Long> {
-    Page<Pet> findByOwner(User owner, Pageable pageable);
-}
\ No newline at end of file
+
+public interface PetRepository extends JpaRepository<Pet, Long>, PetRepositoryCustom {
+    // Listing projections: the owner username comes from the same join, so a page costs one
+    // select plus the count instead of a lazy owner load (and its roles) per pet
+    @Query(value = "select new com.virtualpets.backend.dto.response.PetResponse(p.id, p.name, p.type, p.age, o.username, p.version) "
+            + "from Pet p left join p.owner o",
+            countQuery = "select count(p) from Pet p")
+    Page<PetResponse> findAllResponses(Pageable pageable);
+
+    @Query(value = "select new com.virtualpets.backend.dto.response.PetResponse(p.id, p.name, p.type, p.age, o.username, p.version) "
+            + "from Pet p join p.owner o where p.owner.id = :ownerId",
+            countQuery = "select count(p) from Pet p where p.owner.id = :ownerId")
+    Page<PetResponse> findResponsesByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    // Slice variants: Spring Data reads size + 1 rows to set hasNext and never issues a count
+    @Query("select new com.virtualpets.backend.dto.response.PetResponse(p.id, p.name, p.type, p.age, o.username, p.version) "
+            + "from Pet p left join p.owner o")
+    Slice<PetResponse> sliceAllResponses(Pageable pageable);
+
+    @Query("select new com.virtualpets.backend.dto.response.PetResponse(p.id, p.name, p.type, p.age, o.username, p.version) "
+            + "from Pet p join p.owner o where p.owner.id = :ownerId")
+    Slice<PetResponse> sliceResponsesByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    // Name index loads: id and name only, read from the (owner_id, name, id) index or the table
+    @Query("select new com.virtualpets.backend.dto.response.PetSuggestion(p.id, p.name) from Pet p where p.owner.id = :ownerId")
+    List<PetSuggestion> findSuggestionsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("select new com.virtualpets.backend.dto.response.PetSuggestion(p.id, p.name) from Pet p")
+    List<PetSuggestion> findAllSuggestions();
+
+    // Pet statistics: the full grouping rebuilds the counters
+    @Query("select new com.virtualpets.backend.repository.PetTypeAgeCount(p.type, p.age, count(p)) "
+            + "from Pet p group by p.type, p.age")
+    List<PetTypeAgeCount> countByTypeAndAge();
+
+    // Conditional GET probes: the version alone, read through the primary key
+    @Query("select p.version from Pet p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select p.version from Pet p where p.id = :id and p.owner.id = :ownerId")
+    Optional<Long> findVersionByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+    @Query("select new com.virtualpets.backend.repository.OwnerPetStats(count(p), max(p.updatedAt)) "
+            + "from Pet p where p.owner.id = :ownerId")
+    OwnerPetStats statsByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Single-pet statements with ownership in the WHERE clause: an empty result or zero rows
+    // means the pet is missing or belongs to someone else
+    @Query("select new com.virtualpets.backend.dto.response.PetResponse(p.id, p.name, p.type, p.age, o.username, p.version) "
+            + "from Pet p left join p.owner o where p.id = :id")
+    Optional<PetResponse> findResponseById(@Param("id") Long id);
+
+    @Query("select new com.virtualpets.backend.dto.response.PetResponse(p.id, p.name, p.type, p.age, o.username, p.version) "
+            + "from Pet p join p.owner o where p.id = :id and p.owner.id = :ownerId")
+    Optional<PetResponse> findResponseByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+    // A null version skips the optimistic-lock check; either way the version is bumped.
+    // updatedAt is passed in so bulk writes use the same JVM clock as @UpdateTimestamp
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Pet p set p.name = :name, p.type = :type, p.age = :age, p.version = p.version + 1, "
+            + "p.updatedAt = :now where p.id = :id and p.owner.id = :ownerId and (:version is null or p.version = :version)")
+    int updateOwned(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("version") Long version,
+                    @Param("name") String name, @Param("type") PetType type, @Param("age") Integer age,
+                    @Param("now") Instant now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Pet p set p.name = :name, p.type = :type, p.age = :age, p.version = p.version + 1, "
+            + "p.updatedAt = :now where p.id = :id and (:version is null or p.version = :version)")
+    int updateById(@Param("id") Long id, @Param("version") Long version,
+                   @Param("name") String name, @Param("type") PetType type, @Param("age") Integer age,
+                   @Param("now") Instant now);
+
+    // The pets a delete or full update is about to change. The rows stay locked, so the statement that
+    // follows changes exactly these pets and the owner counts and statistics can be moved by what they
+    // held. A null owner id skips the ownership check
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.virtualpets.backend.repository.LockedPet(p.id, p.owner.id, p.type, p.age, p.version) "
+            + "from Pet p where p.id in :ids and (:ownerId is null or p.owner.id = :ownerId)")
+    List<LockedPet> lockByIds(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+
+    // Bulk statements: one DELETE/UPDATE each, with ownership in the WHERE clause
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Pet p where p.id in :ids and p.owner.id = :ownerId")
+    int deleteOwnedByIds(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Pet p where p.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Pet p set p.owner = :newOwner, p.version = p.version + 1, p.updatedAt = :now "
+            + "where p.owner.id = :fromOwnerId")
+    int transferOwnership(@Param("fromOwnerId") Long fromOwnerId, @Param("newOwner") User newOwner,
+                          @Param("now") Instant now);
+}
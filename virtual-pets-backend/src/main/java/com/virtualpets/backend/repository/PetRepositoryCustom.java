@@ -0,0 +1,51 @@
+package com.virtualpets.backend.repository;
+
+import com.virtualpets.backend.dto.request.PetBulkUpdateRequest;
+import com.virtualpets.backend.dto.request.PetCursor;
+import com.virtualpets.backend.dto.request.PetSortField;
+import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.model.Pet;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PetRepositoryCustom {
+
+    /**
+     * Keyset page: up to {@code limit} pets ordered by {@code (sortField, id)} that come
+     * strictly after {@code after}, or from the start when it is null. A null owner id
+     * lists every pet; a null filter adds no further conditions.
+     */
+    List<PetResponse> findResponsesAfter(Long ownerId, Specification<Pet> filter, PetSortField sortField,
+                                         Sort.Direction direction, PetCursor after, int limit);
+
+    /**
+     * Listing projection of the pets matching {@code spec}. The count query only runs
+     * when the page is full or not the first, as with the derived listing queries.
+     */
+    Page<PetResponse> findResponses(Specification<Pet> spec, Pageable pageable);
+
+    /**
+     * Count-free variant of {@link #findResponses}: reads one extra row to set hasNext.
+     */
+    Slice<PetResponse> sliceResponses(Specification<Pet> spec, Pageable pageable);
+
+    /**
+     * Applies the request's non-null changes to every matching pet in one UPDATE. A
+     * non-null owner id is added to the WHERE clause, so pets of other users are never touched.
+     *
+     * @return the number of rows updated
+     */
+    int bulkUpdate(Long ownerId, PetBulkUpdateRequest request);
+
+    /**
+     * Every pet ordered by id, read through a forward-only cursor with the given JDBC
+     * fetch size. Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<PetResponse> streamAllResponses(int fetchSize);
+}
@@ -0,0 +1,186 @@
+package com.virtualpets.backend.repository;
+
+import com.virtualpets.backend.dto.request.PetBulkUpdateRequest;
+import com.virtualpets.backend.dto.request.PetCursor;
+import com.virtualpets.backend.dto.request.PetSortField;
+import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.model.Pet;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PetRepositoryCustomImpl implements PetRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PetResponse> findResponsesAfter(Long ownerId, Specification<Pet> filter, PetSortField sortField,
+                                                Sort.Direction direction, PetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PetResponse> query = cb.createQuery(PetResponse.class);
+        Root<Pet> pet = query.from(Pet.class);
+        selectResponse(cb, query, pet);
+
+        boolean ascending = direction.isAscending();
+        Path<Long> id = pet.get("id");
+        Path<Comparable<Object>> key = pet.get(sortField.attribute());
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (ownerId != null) {
+            predicates.add(cb.equal(pet.get("owner").get("id"), ownerId));
+        }
+        Predicate filtered = filter == null ? null : filter.toPredicate(pet, query, cb);
+        if (filtered != null) {
+            predicates.add(filtered);
+        }
+        if (after != null) {
+            predicates.add(sortField == PetSortField.ID
+                    ? beyond(cb, id, after.lastId(), ascending)
+                    : keysetPredicate(cb, key, id, sortField.parse(after.lastValue()), after.lastId(), ascending));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        if (sortField == PetSortField.ID) {
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Page<PetResponse> findResponses(Specification<Pet> spec, Pageable pageable) {
+        List<PetResponse> content = responseQuery(spec, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<PetResponse> sliceResponses(Specification<Pet> spec, Pageable pageable) {
+        List<PetResponse> rows = responseQuery(spec, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private List<PetResponse> responseQuery(Specification<Pet> spec, Pageable pageable, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PetResponse> query = cb.createQuery(PetResponse.class);
+        Root<Pet> pet = query.from(Pet.class);
+        selectResponse(cb, query, pet);
+
+        Predicate predicate = spec.toPredicate(pet, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), pet, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private long count(Specification<Pet> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Pet> pet = query.from(Pet.class);
+        query.select(cb.count(pet));
+
+        Predicate predicate = spec.toPredicate(pet, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Same projection as the JPQL listing queries: the owner username comes from the join
+    private static void selectResponse(CriteriaBuilder cb, CriteriaQuery<PetResponse> query, Root<Pet> pet) {
+        Join<Pet, User> owner = pet.join("owner", JoinType.LEFT);
+        query.select(cb.construct(PetResponse.class,
+                pet.get("id"), pet.get("name"), pet.get("type"), pet.get("age"), owner.get("username"),
+                pet.get("version")));
+    }
+
+    @Override
+    public int bulkUpdate(Long ownerId, PetBulkUpdateRequest request) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Pet> update = cb.createCriteriaUpdate(Pet.class);
+        Root<Pet> pet = update.from(Pet.class);
+
+        if (request.name() != null) {
+            update.set(pet.<String>get("name"), request.name());
+        }
+        if (request.type() != null) {
+            update.set(pet.<PetType>get("type"), request.type());
+        }
+        if (request.age() != null) {
+            update.set(pet.<Integer>get("age"), request.age());
+        }
+        update.set(pet.<Long>get("version"), cb.sum(pet.<Long>get("version"), 1L));
+        update.set(pet.<Instant>get("updatedAt"), Instant.now());
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (ownerId != null) {
+            predicates.add(cb.equal(pet.get("owner").get("id"), ownerId));
+        }
+        if (request.ids() != null && !request.ids().isEmpty()) {
+            predicates.add(pet.get("id").in(request.ids()));
+        }
+        if (request.filterType() != null) {
+            predicates.add(cb.equal(pet.get("type"), request.filterType()));
+        }
+        if (request.filterMinAge() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(pet.get("age"), request.filterMinAge()));
+        }
+        if (request.filterMaxAge() != null) {
+            predicates.add(cb.lessThanOrEqualTo(pet.get("age"), request.filterMaxAge()));
+        }
+        update.where(predicates.toArray(Predicate[]::new));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    // (key, id) > (lastKey, lastId), spelled out because row-value comparison is not portable JPQL
+    @SuppressWarnings("unchecked")
+    private static Predicate keysetPredicate(CriteriaBuilder cb, Path<Comparable<Object>> key, Path<Long> id,
+                                             Comparable<?> lastKey, long lastId, boolean ascending) {
+        Comparable<Object> value = (Comparable<Object>) lastKey;
+        return cb.or(
+                beyond(cb, key, value, ascending),
+                cb.and(cb.equal(key, value), beyond(cb, id, lastId, ascending)));
+    }
+
+    private static <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder cb, Expression<? extends T> path,
+                                                                      T value, boolean ascending) {
+        return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+
+    @Override
+    public Stream<PetResponse> streamAllResponses(int fetchSize) {
+        return entityManager.createQuery(
+                        "select new com.virtualpets.backend.dto.response.PetResponse(p.id, p.name, p.type, p.age, o.username, p.version) "
+                                + "from Pet p left join p.owner o order by p.id", PetResponse.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,61 @@
+package com.virtualpets.backend.repository;
+
+import com.virtualpets.backend.dto.request.PetFilter;
+import com.virtualpets.backend.model.Pet;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Composable WHERE clauses for pet listings. Each condition maps onto a leading column of
+ * an existing index: owner and type set plus age range on (owner_id, type, age, id), a
+ * name prefix on (owner_id, name, id) or (name, id). A contains match has no usable
+ * index and is checked row by row within whatever range the other conditions select.
+ */
+public final class PetSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private PetSpecifications() {
+    }
+
+    public static Specification<Pet> ownedBy(Long ownerId) {
+        return (pet, query, cb) -> cb.equal(pet.get("owner").get("id"), ownerId);
+    }
+
+    public static Specification<Pet> matching(PetFilter filter) {
+        List<Specification<Pet>> conditions = new ArrayList<>();
+        if (filter.type() != null) {
+            conditions.add((pet, query, cb) -> pet.get("type").in(filter.type()));
+        }
+        if (filter.minAge() != null) {
+            conditions.add((pet, query, cb) -> cb.greaterThanOrEqualTo(pet.get("age"), filter.minAge()));
+        }
+        if (filter.maxAge() != null) {
+            conditions.add((pet, query, cb) -> cb.lessThanOrEqualTo(pet.get("age"), filter.maxAge()));
+        }
+        if (filter.namePrefix() != null) {
+            conditions.add((pet, query, cb) ->
+                    cb.like(pet.get("name"), escapeLike(filter.namePrefix()) + "%", LIKE_ESCAPE));
+        }
+        if (filter.nameContains() != null) {
+            conditions.add((pet, query, cb) ->
+                    cb.like(pet.get("name"), "%" + escapeLike(filter.nameContains()) + "%", LIKE_ESCAPE));
+        }
+        return Specification.allOf(conditions);
+    }
+
+    // Wildcards typed by the client are matched literally
+    private static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 4);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,6 @@
+package com.virtualpets.backend.repository;
+
+import com.virtualpets.backend.model.Pet.PetType;
+
+// How many pets share one (type, age) pair; the grain the pet statistics are kept at
+public record PetTypeAgeCount(PetType type, Integer age, long count) { }
@@ -0,0 +1,35 @@
+package com.virtualpets.backend.repository;
+
+import com.virtualpets.backend.model.RefreshToken;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Conditional update so two concurrent refreshes with the same token cannot both succeed
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :now where t.id = :id and t.usedAt is null and t.revoked = false")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.user.id = :userId and t.revoked = false")
+    int revokeByUserId(@Param("userId") Long userId);
+
+    // Used tokens are kept until they expire, so replaying one can still revoke its family
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= :now or t.revoked = true")
+    int deleteExpiredOrRevoked(@Param("now") Instant now);
+}
@@ -1,9 +1,35 @@
 package com.virtualpets.backend.repository;
 
 import com.virtualpets.backend.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import com.virtualpets.backend.dto.response.TopOwnerResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    @Query(value = "select u.id from User u", countQuery = "select count(u) from User u")
+    Page<Long> findIds(Pageable pageable);
+
+    @Query("select distinct u from User u left join fetch u.roles where u.id in :ids")
+    List<User> findWithRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // The database adds to the stored count, so concurrent pet writes for one owner never lose an update
+    @Modifying
+    @Query("update User u set u.petCount = u.petCount + :delta where u.id = :id")
+    int addPetCount(@Param("id") Long id, @Param("delta") long delta);
+
+    @Query("select new com.virtualpets.backend.dto.response.TopOwnerResponse(u.id, u.username, u.petCount) "
+            + "from User u where u.petCount > 0")
+    List<TopOwnerResponse> findPetOwners();
 }
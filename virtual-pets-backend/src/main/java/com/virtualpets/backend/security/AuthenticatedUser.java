@@ -0,0 +1,86 @@
+package com.virtualpets.backend.security;
+
+import com.virtualpets.backend.model.RoleName;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built from a verified JWT. Carries the user id and the role bitmask from
+ * the token claims so services can run ownership and admin checks without loading the
+ * user. Role names and authorities come from tables shared by every principal with
+ * the same mask, so building a principal allocates nothing per role. The token id
+ * ({@code jti}) is kept so the request can be checked against the revocation list.
+ */
+public final class AuthenticatedUser implements Principal {
+
+    private final Long id;
+    private final String username;
+    private final int roleMask;
+    private final String tokenId;
+
+    public AuthenticatedUser(Long id, String username, int roleMask, String tokenId) {
+        this.id = id;
+        this.username = username;
+        this.roleMask = roleMask;
+        this.tokenId = tokenId;
+    }
+
+    public AuthenticatedUser(Long id, String username, int roleMask) {
+        this(id, username, roleMask, null);
+    }
+
+    public AuthenticatedUser(Long id, String username, Collection<String> roles) {
+        this(id, username, RoleName.maskOf(roles));
+    }
+
+    // The same principal with the user's current roles in place of the token's
+    public AuthenticatedUser withRoleMask(int currentRoleMask) {
+        return currentRoleMask == roleMask ? this : new AuthenticatedUser(id, username, currentRoleMask, tokenId);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    // Null for tokens issued before the jti claim; those cannot be revoked individually
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public int getRoleMask() {
+        return roleMask;
+    }
+
+    public List<String> getRoles() {
+        return RoleName.namesOf(roleMask);
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return RoleName.authoritiesOf(roleMask);
+    }
+
+    public boolean hasRole(RoleName role) {
+        return role.isIn(roleMask);
+    }
+
+    public boolean isAdmin() {
+        return hasRole(RoleName.ROLE_ADMIN);
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
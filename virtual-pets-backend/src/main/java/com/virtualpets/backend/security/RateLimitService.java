@@ -0,0 +1,74 @@
+package com.virtualpets.backend.security;
+
+import com.virtualpets.backend.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Separate token-bucket budgets for the auth routes (BCrypt-bound) and the pet API,
+ * each applied per client IP and per user. State is kept in this JVM only.
+ */
+@Component
+public class RateLimitService {
+
+    private static final int MAX_KEYS = 100_000;
+
+    private final boolean enabled;
+    private final TokenBucketRateLimiter authPerIp;
+    private final TokenBucketRateLimiter loginPerUsernameAndIp;
+    private final TokenBucketRateLimiter petsPerIp;
+    private final TokenBucketRateLimiter petsPerUser;
+
+    public RateLimitService(@Value("${ratelimit.enabled:true}") boolean enabled,
+                            @Value("${ratelimit.auth.ip.capacity:20}") long authIpCapacity,
+                            @Value("${ratelimit.auth.ip.refill-per-minute:20}") long authIpRefill,
+                            @Value("${ratelimit.auth.user.capacity:10}") long loginUserCapacity,
+                            @Value("${ratelimit.auth.user.refill-per-minute:10}") long loginUserRefill,
+                            @Value("${ratelimit.pets.ip.capacity:200}") long petsIpCapacity,
+                            @Value("${ratelimit.pets.ip.refill-per-minute:6000}") long petsIpRefill,
+                            @Value("${ratelimit.pets.user.capacity:100}") long petsUserCapacity,
+                            @Value("${ratelimit.pets.user.refill-per-minute:3000}") long petsUserRefill) {
+        this.enabled = enabled;
+        this.authPerIp = new TokenBucketRateLimiter("auth-ip", authIpCapacity, authIpRefill, MAX_KEYS);
+        this.loginPerUsernameAndIp = new TokenBucketRateLimiter("login-user", loginUserCapacity, loginUserRefill, MAX_KEYS);
+        this.petsPerIp = new TokenBucketRateLimiter("pets-ip", petsIpCapacity, petsIpRefill, MAX_KEYS);
+        this.petsPerUser = new TokenBucketRateLimiter("pets-user", petsUserCapacity, petsUserRefill, MAX_KEYS);
+    }
+
+    public void checkAuth(String clientIp) {
+        check(authPerIp, clientIp);
+    }
+
+    // Login attempts are also limited per target username from each client, tighter than the per-IP
+    // auth budget; keyed by username alone, anyone could lock the account's owner out
+    public void checkLogin(String username, String clientIp) {
+        if (username != null && clientIp != null) {
+            check(loginPerUsernameAndIp, clientIp + " " + username);
+        }
+    }
+
+    public void checkPets(String clientIp, AuthenticatedUser principal) {
+        check(petsPerIp, clientIp);
+        if (principal != null) {
+            check(petsPerUser, String.valueOf(principal.getId()));
+        }
+    }
+
+    public List<TokenBucketRateLimiter> limiters() {
+        return List.of(authPerIp, loginPerUsernameAndIp, petsPerIp, petsPerUser);
+    }
+
+    private void check(TokenBucketRateLimiter limiter, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+            throw new TooManyRequestsException("Rate limit exceeded, please retry later", retryAfterSeconds);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.virtualpets.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token bucket per key (user id, client IP, ...). Buckets live in a Caffeine
+ * cache and each is mutated under its own lock, so unrelated keys never contend. A
+ * bucket left alone long enough to refill completely behaves exactly like a new one, so
+ * it expires after that idle time; beyond {@code maxKeys} the least valuable buckets are
+ * evicted, which keeps memory bounded under a flood of distinct keys.
+ */
+public class TokenBucketRateLimiter {
+
+    private final String name;
+    private final double capacity;
+    private final double nanosPerToken;
+    private final LongSupplier nanoTime;
+    private final Cache<String, Bucket> buckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketRateLimiter(String name, long capacity, long refillPerMinute, int maxKeys) {
+        this(name, capacity, refillPerMinute, maxKeys, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(String name, long capacity, long refillPerMinute, int maxKeys, LongSupplier nanoTime) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.nanosPerToken = 60_000_000_000d / refillPerMinute;
+        this.nanoTime = nanoTime;
+        // Maintenance runs on the calling thread; it is amortized and keeps expiry on the limiter's clock
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(capacity * nanosPerToken)))
+                .maximumSize(maxKeys)
+                .ticker(nanoTime::getAsLong)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return 0 if the call is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoTime.getAsLong();
+        Bucket bucket = buckets.get(key, k -> new Bucket(capacity, now));
+
+        synchronized (bucket) {
+            bucket.refill(now, capacity, nanosPerToken);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                allowed.increment();
+                return 0;
+            }
+            rejected.increment();
+            return (long) Math.ceil((1 - bucket.tokens) * nanosPerToken);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long allowedCount() {
+        return allowed.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public int trackedKeys() {
+        buckets.cleanUp();
+        return (int) buckets.estimatedSize();
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+
+        void refill(long now, double capacity, double nanosPerToken) {
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed / nanosPerToken);
+                lastRefillNanos = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.virtualpets.backend.security;
+
+import com.virtualpets.backend.model.RevokedToken;
+import com.virtualpets.backend.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revoked access tokens, keyed by their {@code jti}. The revoked_tokens table is the
+ * source of truth; this JVM keeps an exact set of the unexpired ids with a Bloom filter
+ * in front of it, so the usual not-revoked answer costs a few hash probes and never
+ * touches the database. Both are rebuilt from the table by the periodic sweep, which
+ * also drops expired rows and picks up revocations made by other instances.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final Clock clock;
+
+    private volatile Snapshot snapshot;
+
+    private final LongAdder bloomNegatives = new LongAdder();
+    private final LongAdder exactLookups = new LongAdder();
+
+    @Autowired
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               @Value("${auth.revocation.expected-entries:100000}") int expectedEntries) {
+        this(revokedTokenRepository, expectedEntries, Clock.systemUTC());
+    }
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository, int expectedEntries, Clock clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.clock = clock;
+        this.snapshot = new Snapshot(expectedEntries);
+    }
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        if (!current.bloom.mightContain(jti)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        exactLookups.increment();
+        return current.ids.contains(jti);
+    }
+
+    /**
+     * Records the revocation in the table before publishing it locally. Holding the
+     * lock keeps a concurrent rebuild from swapping in a snapshot that misses it.
+     */
+    public synchronized void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            try {
+                revokedTokenRepository.save(RevokedToken.builder()
+                        .jti(jti)
+                        .expiresAt(expiresAt)
+                        .revokedAt(clock.instant())
+                        .build());
+            } catch (DataIntegrityViolationException ex) {
+                // Revoked concurrently by another instance; the row is there either way
+            }
+        }
+        snapshot.add(jti);
+    }
+
+    // Bloom filters cannot forget, so expired ids are dropped by building a fresh one
+    @Scheduled(fixedDelayString = "${auth.revocation.sweep-interval-ms:60000}",
+            initialDelayString = "${auth.revocation.sweep-interval-ms:60000}")
+    public void sweep() {
+        revokedTokenRepository.deleteExpired(clock.instant());
+        rebuild();
+    }
+
+    public int size() {
+        return snapshot.ids.size();
+    }
+
+    public long bloomNegatives() {
+        return bloomNegatives.sum();
+    }
+
+    public long exactLookups() {
+        return exactLookups.sum();
+    }
+
+    private synchronized void rebuild() {
+        Collection<String> active = revokedTokenRepository.findActiveJtis(clock.instant());
+        Snapshot fresh = new Snapshot(Math.max(expectedEntries, active.size() * 2));
+        active.forEach(fresh::add);
+        snapshot = fresh;
+    }
+
+    private static final class Snapshot {
+        final BloomFilter bloom;
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        Snapshot(int expectedEntries) {
+            this.bloom = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+        }
+
+        // The exact set is written first so a Bloom hit always finds the id
+        void add(String jti) {
+            ids.add(jti);
+            bloom.put(jti);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.virtualpets.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already verified JWTs, keyed by the SHA-256 digest of the token
+ * so raw bearer tokens are never kept in memory. Entries expire together with the token.
+ * Callers compute the digest once with {@link #key(String)} and use it for both the
+ * lookup and the store after a miss.
+ */
+public class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean cleaning = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    public VerifiedTokenCache(int maxEntries, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public AuthenticatedUser get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(clock.millis())) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.principal();
+    }
+
+    public void put(String key, AuthenticatedUser principal, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.millis()) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            makeRoom();
+        }
+        entries.put(key, new Entry(principal, expiresAtMillis));
+    }
+
+    // Drops every cached token of one user, e.g. after their roles change
+    public void invalidateUser(Long userId) {
+        entries.values().removeIf(entry -> userId.equals(entry.principal().getId()));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    // Drops expired tokens first; if the cache is still full, evicts arbitrary entries down to 90%.
+    private void makeRoom() {
+        if (!cleaning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = clock.millis();
+            entries.values().removeIf(entry -> {
+                boolean expired = entry.isExpired(now);
+                if (expired) {
+                    evictions.increment();
+                }
+                return expired;
+            });
+
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<String> it = entries.keySet().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            cleaning.set(false);
+        }
+    }
+
+    // The cache key of a token: its SHA-256 digest, Base64-encoded
+    public static String key(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private record Entry(AuthenticatedUser principal, long expiresAtMillis) {
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
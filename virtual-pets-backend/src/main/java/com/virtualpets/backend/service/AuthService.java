@@ -1,12 +1,18 @@
 package com.virtualpets.backend.service;
 
 import com.virtualpets.backend.dto.request.LoginRequest;
+import com.virtualpets.backend.dto.request.RefreshRequest;
 import com.virtualpets.backend.dto.request.RegisterRequest;
 import com.virtualpets.backend.dto.response.AuthResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface
 
 AuthService {
-    AuthResponse register(RegisterRequest request);
-    AuthResponse login(LoginRequest request);
+    CompletableFuture<AuthResponse> register(RegisterRequest request);
+    CompletableFuture<AuthResponse> login(LoginRequest request);
+    AuthResponse refresh(RefreshRequest request);
+    void logout(String accessToken);
+    void logoutEverywhere(String accessToken);
 }
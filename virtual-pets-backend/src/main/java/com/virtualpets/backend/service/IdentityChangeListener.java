@@ -0,0 +1,61 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.util.JwtUtil;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on User and Role that keeps the identity caches in step with writes made
+ * through any repository. Hibernate builds it through Spring's bean container; the caches
+ * are looked up lazily because the listener exists before the repositories they use.
+ * A changed or removed user also loses their verified tokens, and a role write drops
+ * every verified token, so no cached principal outlives the roles it was built with.
+ * Changes to a user's role set alone do not update the user row; those are handled by
+ * {@link RoleAssignmentListener}.
+ */
+public class IdentityChangeListener {
+
+    private final ObjectProvider<UserIdentityCache> identityCache;
+    private final ObjectProvider<RoleRegistry> roleRegistry;
+    private final ObjectProvider<UserService> userService;
+    private final ObjectProvider<JwtUtil> jwtUtil;
+
+    public IdentityChangeListener(ObjectProvider<UserIdentityCache> identityCache,
+                                  ObjectProvider<RoleRegistry> roleRegistry,
+                                  ObjectProvider<UserService> userService,
+                                  ObjectProvider<JwtUtil> jwtUtil) {
+        this.identityCache = identityCache;
+        this.roleRegistry = roleRegistry;
+        this.userService = userService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @PostPersist
+    public void onCreate(Object entity) {
+        onChange(entity, false);
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUpdate(Object entity) {
+        onChange(entity, true);
+    }
+
+    private void onChange(Object entity, boolean existing) {
+        if (entity instanceof User user) {
+            identityCache.ifAvailable(cache -> cache.evict(user.getId(), user.getUsername()));
+            if (existing) {
+                jwtUtil.ifAvailable(jwt -> jwt.getTokenCache().invalidateUser(user.getId()));
+            }
+        } else if (entity instanceof Role) {
+            roleRegistry.ifAvailable(RoleRegistry::invalidate);
+            identityCache.ifAvailable(UserIdentityCache::evictAll);
+            jwtUtil.ifAvailable(jwt -> jwt.getTokenCache().invalidateAll());
+        }
+        userService.ifAvailable(UserService::evictAllCaches);
+    }
+}
@@ -0,0 +1,9 @@
+package com.virtualpets.backend.service;
+
+/**
+ * How many pets one owner gained or lost in a write, published in the same transaction
+ * as the increment statement on users.pet_count and applied to {@link PetOwnerRanking}
+ * after commit. The username lets the ranking add an owner it has not seen yet; it may
+ * be null when the writer only knows the id of an owner already ranked.
+ */
+public record OwnerPetCountChange(Long ownerId, String username, long delta) { }
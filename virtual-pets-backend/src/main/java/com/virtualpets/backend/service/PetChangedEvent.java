@@ -0,0 +1,32 @@
+package com.virtualpets.backend.service;
+
+/**
+ * Published inside the transaction that changed pets. Listeners run after commit, so
+ * caches are only invalidated once the change is visible to other requests. A null
+ * owner id means the writer did not know which owners were affected.
+ * <p>
+ * Single-pet writes also say which pet changed and its new name (null once deleted),
+ * so listeners that track individual pets can update in place instead of reloading.
+ */
+public record PetChangedEvent(Long ownerId, Long petId, String name) {
+
+    public PetChangedEvent(Long ownerId) {
+        this(ownerId, null, null);
+    }
+
+    public static PetChangedEvent anyOwner() {
+        return new PetChangedEvent(null);
+    }
+
+    public static PetChangedEvent saved(Long ownerId, Long petId, String name) {
+        return new PetChangedEvent(ownerId, petId, name);
+    }
+
+    public static PetChangedEvent deleted(Long ownerId, Long petId) {
+        return new PetChangedEvent(ownerId, petId, null);
+    }
+
+    public boolean isSinglePet() {
+        return petId != null;
+    }
+}
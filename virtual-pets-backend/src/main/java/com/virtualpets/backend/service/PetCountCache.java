@@ -0,0 +1,125 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.repository.OwnerPetStats;
+import com.virtualpets.backend.repository.PetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate pet totals for the slice listing. The table-wide count is refreshed in the
+ * background, and only while someone is reading it. Per-owner counts are cached for the
+ * same interval and dropped after a commit that changes that owner's pets in this instance.
+ * <p>
+ * The owner's listing ETag comes from an in-memory version per owner that every such
+ * commit moves forward, so checking it never queries. Versions start over in a new
+ * epoch when the instance starts and whenever they are dropped together, which keeps
+ * an old tag from matching a new version. Writes made by other instances do not move
+ * these versions.
+ */
+@Component
+public class PetCountCache {
+
+    private static final int MAX_OWNERS = 10_000;
+
+    private final PetRepository petRepository;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private volatile long total = -1;
+    private final AtomicBoolean totalRequested = new AtomicBoolean();
+    private final Map<Long, CachedStats> ownerStats = new ConcurrentHashMap<>();
+
+    private volatile long epoch;
+    private final Map<Long, AtomicLong> ownerVersions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PetCountCache(PetRepository petRepository,
+                         @Value("${pets.count.refresh-interval-ms:30000}") long ttlMillis) {
+        this(petRepository, ttlMillis, System::currentTimeMillis);
+    }
+
+    public PetCountCache(PetRepository petRepository, long ttlMillis, LongSupplier clock) {
+        this.petRepository = petRepository;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+    }
+
+    public long totalPets() {
+        totalRequested.set(true);
+        long cached = total;
+        if (cached < 0) {
+            cached = petRepository.count();
+            total = cached;
+        }
+        return cached;
+    }
+
+    public long petsOwnedBy(Long ownerId) {
+        return statsOf(ownerId).count();
+    }
+
+    // Changes whenever a pet of the owner is added, removed or updated; a map read, so every poll can check it
+    public String ownerListingTag(Long ownerId) {
+        AtomicLong version = ownerVersions.get(ownerId);
+        return "o" + ownerId + "-" + Long.toString(epoch, 36) + "-" + (version == null ? 0 : version.get());
+    }
+
+    public void evictOwner(Long ownerId) {
+        ownerStats.remove(ownerId);
+    }
+
+    public void evictAll() {
+        ownerStats.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        if (event.ownerId() == null || ownerVersions.size() >= MAX_OWNERS) {
+            // The epoch moves before the versions go, so no tag is built from an old epoch and a reset version
+            epoch = Math.max(epoch + 1, clock.getAsLong());
+            ownerVersions.clear();
+        } else {
+            ownerVersions.computeIfAbsent(event.ownerId(), id -> new AtomicLong()).incrementAndGet();
+        }
+        if (event.ownerId() == null) {
+            evictAll();
+        } else {
+            evictOwner(event.ownerId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pets.count.refresh-interval-ms:30000}",
+            initialDelayString = "${pets.count.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (totalRequested.getAndSet(false)) {
+            total = petRepository.count();
+        }
+    }
+
+    private OwnerPetStats statsOf(Long ownerId) {
+        long now = clock.getAsLong();
+        CachedStats cached = ownerStats.get(ownerId);
+        if (cached != null && now - cached.loadedAt < ttlMillis) {
+            return cached.stats;
+        }
+        if (ownerStats.size() >= MAX_OWNERS) {
+            ownerStats.clear();
+        }
+        OwnerPetStats stats = petRepository.statsByOwnerId(ownerId);
+        ownerStats.put(ownerId, new CachedStats(stats, now));
+        return stats;
+    }
+
+    private record CachedStats(OwnerPetStats stats, long loadedAt) { }
+}
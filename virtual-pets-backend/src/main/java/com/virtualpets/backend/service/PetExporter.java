@@ -0,0 +1,145 @@
+package com.virtualpets.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.virtualpets.backend.dto.request.PetDataFormat;
+import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.exception.UnauthorizedActionException;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every pet to an output stream as it is read from a forward-only result set.
+ * Rows are DTO projections with the owner username from the same join, so nothing is
+ * added to the persistence context and memory stays flat however large the table is.
+ * Output goes through a fixed-size buffer and is never flushed per row; the servlet
+ * container sends it in chunks as the buffer fills.
+ * <p>
+ * CSV rows end in CRLF as RFC 4180 asks. A text cell a spreadsheet would run as a
+ * formula gets a leading apostrophe, which {@link PetImporter} strips again on the way
+ * back in.
+ */
+@Component
+public class PetExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,name,type,age,ownerUsername,version\r\n";
+
+    private final PetRepository petRepository;
+    private final ObjectWriter rowWriter;
+    private final int fetchSize;
+
+    public PetExporter(PetRepository petRepository, ObjectMapper objectMapper,
+                       @Value("${pets.export.fetch-size:1000}") int fetchSize) {
+        this.petRepository = petRepository;
+        this.rowWriter = objectMapper.writerFor(PetResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Streams all pets ordered by id. The caller owns {@code out} and is responsible for
+     * finishing any wrapping stream such as gzip.
+     *
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(AuthenticatedUser principal, PetDataFormat format, OutputStream out) throws IOException {
+        if (!principal.isAdmin()) {
+            throw new UnauthorizedActionException("Only admins can export pets");
+        }
+        try (Stream<PetResponse> rows = petRepository.streamAllResponses(fetchSize)) {
+            return switch (format) {
+                case NDJSON -> writeNdjson(rows.iterator(), out);
+                case CSV -> writeCsv(rows.iterator(), out);
+            };
+        }
+    }
+
+    private long writeNdjson(Iterator<PetResponse> rows, OutputStream out) throws IOException {
+        long count = 0;
+        JsonGenerator generator = rowWriter.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        while (rows.hasNext()) {
+            rowWriter.writeValue(generator, rows.next());
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.close();
+        return count;
+    }
+
+    private long writeCsv(Iterator<PetResponse> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        while (rows.hasNext()) {
+            PetResponse pet = rows.next();
+            writer.write(String.valueOf(pet.id()));
+            writer.write(',');
+            writeCsvField(writer, pet.name());
+            writer.write(',');
+            writer.write(pet.type() == null ? "" : pet.type().name());
+            writer.write(',');
+            writer.write(String.valueOf(pet.age()));
+            writer.write(',');
+            writeCsvField(writer, pet.ownerUsername());
+            writer.write(',');
+            writer.write(String.valueOf(pet.version()));
+            writer.write("\r\n");
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * True when a spreadsheet would read the cell as a formula, looking past any leading
+     * apostrophes so that a value which already starts with one is guarded again and
+     * survives an export and re-import unchanged.
+     */
+    static boolean isFormulaLike(String value) {
+        int i = 0;
+        while (i < value.length() && value.charAt(i) == '\'') {
+            i++;
+        }
+        return i < value.length() && "=+-@".indexOf(value.charAt(i)) >= 0;
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, doubling inner quotes
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = isFormulaLike(value);
+        if (quote) {
+            value = "'" + value;
+        }
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
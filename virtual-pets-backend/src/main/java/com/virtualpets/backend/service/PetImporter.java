@@ -0,0 +1,393 @@
+package com.virtualpets.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.virtualpets.backend.dto.request.PetDataFormat;
+import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.response.PetImportResponse;
+import com.virtualpets.backend.model.Pet;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Loads pets from an NDJSON or CSV upload as it arrives. Lines are read one at a time
+ * (capped at {@link #MAX_LINE_CHARS}), parsed with Jackson's streaming parser or a CSV
+ * splitter, validated against the PetRequest constraints and inserted in chunks, each
+ * chunk in its own transaction with JDBC-batched inserts. The persistence context is
+ * cleared after every chunk and only the first rejections are kept, so memory does not
+ * grow with the upload. Reading waits for each insert, which pushes back on the client
+ * through the request stream. A failed line or chunk is reported and skipped; chunks
+ * committed before it stay.
+ */
+@Component
+public class PetImporter {
+
+    public static final int MAX_LINE_CHARS = 64 * 1024;
+
+    private final PetRepository petRepository;
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final JsonFactory jsonFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxRejections;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PetImporter(PetRepository petRepository, UserRepository userRepository, Validator validator,
+                       ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${pets.import.chunk-size:500}") int chunkSize,
+                       @Value("${pets.import.max-rejections:100}") int maxRejections) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("pets.import.chunk-size must be positive");
+        }
+        this.petRepository = petRepository;
+        this.userRepository = userRepository;
+        this.validator = validator;
+        this.jsonFactory = objectMapper.getFactory();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxRejections = maxRejections;
+    }
+
+    /**
+     * Imports every line of {@code in} as a pet owned by the caller. A CSV upload must
+     * start with a header naming at least the name, type and age columns.
+     */
+    public PetImportResponse importPets(AuthenticatedUser principal, PetDataFormat format, InputStream in)
+            throws IOException {
+        LineReader lines = new LineReader(new InputStreamReader(in, StandardCharsets.UTF_8), MAX_LINE_CHARS);
+        Summary summary = new Summary(maxRejections);
+        List<Line> chunk = new ArrayList<>(chunkSize);
+        CsvColumns columns = null;
+
+        String text;
+        while ((text = lines.next()) != null) {
+            long number = lines.number();
+            if (lines.truncated()) {
+                summary.reject(number, "Line is longer than " + MAX_LINE_CHARS + " characters");
+                continue;
+            }
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == PetDataFormat.CSV && columns == null) {
+                columns = CsvColumns.fromHeader(text);
+                continue;
+            }
+
+            PetRequest request;
+            try {
+                request = format == PetDataFormat.NDJSON ? parseJson(text) : columns.parse(text);
+            } catch (IOException | IllegalArgumentException e) {
+                summary.reject(number, "Unreadable line: " + e.getMessage());
+                continue;
+            }
+            String violations = violationsOf(request);
+            if (violations != null) {
+                summary.reject(number, violations);
+                continue;
+            }
+
+            chunk.add(new Line(number, request));
+            if (chunk.size() == chunkSize) {
+                insert(principal, chunk, summary);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insert(principal, chunk, summary);
+        }
+        return summary.toResponse();
+    }
+
+    private void insert(AuthenticatedUser principal, List<Line> chunk, Summary summary) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Counted first, like PetServiceImpl#createPets, so the owner row is locked before the inserts
+                userRepository.addPetCount(principal.getId(), chunk.size());
+                User owner = userRepository.getReferenceById(principal.getId());
+                List<Pet> pets = new ArrayList<>(chunk.size());
+                PetStatsDelta stats = new PetStatsDelta();
+                for (Line line : chunk) {
+                    pets.add(Pet.builder()
+                            .name(line.request.name())
+                            .type(line.request.type())
+                            .age(line.request.age())
+                            .owner(owner)
+                            .build());
+                    stats.add(line.request.type(), line.request.age(), 1);
+                }
+                petRepository.saveAll(pets);
+                entityManager.flush();
+                entityManager.clear();
+                eventPublisher.publishEvent(new PetChangedEvent(principal.getId()));
+                eventPublisher.publishEvent(stats);
+                eventPublisher.publishEvent(new OwnerPetCountChange(principal.getId(), principal.getUsername(),
+                        chunk.size()));
+            });
+            summary.accepted += chunk.size();
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            String reason = "Insert failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Line line : chunk) {
+                summary.reject(line.number, reason);
+            }
+        }
+    }
+
+    // Reads one object with the streaming parser; unknown fields (id, ownerUsername, version) are skipped
+    private PetRequest parseJson(String text) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            String name = null;
+            PetType type = null;
+            Integer age = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "name" -> name = value == JsonToken.VALUE_NULL ? null : scalarText(parser, value, field);
+                    case "type" -> type = value == JsonToken.VALUE_NULL ? null : parseType(scalarText(parser, value, field));
+                    case "age" -> {
+                        if (value != JsonToken.VALUE_NUMBER_INT) {
+                            throw new IllegalArgumentException("age must be an integer");
+                        }
+                        age = parser.getIntValue();
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("unexpected content after the JSON object");
+            }
+            // PetRequest.age is a primitive, so a missing age would silently become 0
+            if (age == null) {
+                throw new IllegalArgumentException("age is missing");
+            }
+            return new PetRequest(name, type, age);
+        }
+    }
+
+    private static String scalarText(JsonParser parser, JsonToken value, String field) throws IOException {
+        if (!value.isScalarValue()) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return parser.getText();
+    }
+
+    private static PetType parseType(String text) {
+        try {
+            return PetType.valueOf(text.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown pet type " + text);
+        }
+    }
+
+    private String violationsOf(PetRequest request) {
+        var violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private record Line(long number, PetRequest request) { }
+
+    private static final class Summary {
+        private final int maxRejections;
+        private final List<PetImportResponse.Rejection> rejections = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+
+        Summary(int maxRejections) {
+            this.maxRejections = maxRejections;
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (rejections.size() < maxRejections) {
+                rejections.add(new PetImportResponse.Rejection(line, reason));
+            }
+        }
+
+        PetImportResponse toResponse() {
+            return new PetImportResponse(accepted, rejected, List.copyOf(rejections));
+        }
+    }
+
+    /** Column positions taken from the CSV header; quoted fields may not span lines. */
+    private record CsvColumns(int name, int type, int age) {
+
+        static CsvColumns fromHeader(String header) {
+            List<String> names = split(header);
+            int name = names.indexOf("name");
+            int type = names.indexOf("type");
+            int age = names.indexOf("age");
+            if (name < 0 || type < 0 || age < 0) {
+                throw new IllegalArgumentException("CSV header must name the name, type and age columns");
+            }
+            return new CsvColumns(name, type, age);
+        }
+
+        PetRequest parse(String text) {
+            List<String> fields = split(text);
+            int needed = Math.max(name, Math.max(type, age)) + 1;
+            if (fields.size() < needed) {
+                throw new IllegalArgumentException("expected at least " + needed + " fields");
+            }
+            String typeText = fields.get(type);
+            String ageText = fields.get(age).trim();
+            if (ageText.isEmpty()) {
+                throw new IllegalArgumentException("age is missing");
+            }
+            int parsedAge;
+            try {
+                parsedAge = Integer.parseInt(ageText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("age must be an integer");
+            }
+            // Undo the apostrophe the exporter puts in front of formula-like names
+            String nameText = fields.get(name);
+            if (nameText.startsWith("'") && PetExporter.isFormulaLike(nameText.substring(1))) {
+                nameText = nameText.substring(1);
+            }
+            return new PetRequest(nameText, typeText.isBlank() ? null : parseType(typeText), parsedAge);
+        }
+
+        // RFC 4180 fields: quoted fields may contain separators and doubled quotes
+        static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * Splits a character stream on '\n', dropping a trailing '\r' and a leading byte order
+     * mark, without ever holding more than {@code maxChars} of one line; the rest of a
+     * longer line is discarded and the line is flagged as truncated.
+     */
+    private static final class LineReader {
+        private final Reader reader;
+        private final int maxChars;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private long number;
+        private boolean truncated;
+
+        LineReader(Reader reader, int maxChars) {
+            this.reader = reader;
+            this.maxChars = maxChars;
+        }
+
+        String next() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer);
+                    position = 0;
+                    if (limit < 0) {
+                        limit = 0;
+                        return read ? finish() : null;
+                    }
+                    continue;
+                }
+                read = true;
+                char c = buffer[position++];
+                if (c == '\n') {
+                    return finish();
+                }
+                if (line.length() < maxChars) {
+                    line.append(c);
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+
+        long number() {
+            return number;
+        }
+
+        boolean truncated() {
+            return truncated;
+        }
+
+        private String finish() {
+            number++;
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            if (number == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line.deleteCharAt(0);
+            }
+            return line.toString();
+        }
+    }
+}
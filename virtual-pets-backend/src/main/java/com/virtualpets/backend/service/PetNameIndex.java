@@ -0,0 +1,240 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.dto.request.PetFilter;
+import com.virtualpets.backend.dto.response.PetSuggestion;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.PetSpecifications;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory prefix index of pet names for type-ahead. An owner's names are loaded on
+ * first use into a set sorted by lower-cased name, so a lookup is a walk from the
+ * prefix that never touches the database. Single-pet writes update loaded sets in
+ * place after commit; other writes drop the owner, who is reloaded on the next lookup.
+ * <p>
+ * Admins search every pet. That set is only built while the table holds at most
+ * {@code pets.suggest.max-global-pets} rows; larger tables are searched through the
+ * (name, id) index instead, with the column's collation deciding case sensitivity.
+ * <p>
+ * As in {@link PetPageCache}, a load reads the owner's change stamp first and is only
+ * installed if no change arrived while it ran.
+ */
+@Component
+public class PetNameIndex {
+
+    private static final int MAX_OWNERS = 10_000;
+
+    private final PetRepository petRepository;
+    private final PetCountCache petCountCache;
+    private final long maxGlobalPets;
+
+    // Stamps come from one sequence so they never repeat; the floor covers writes whose owner is unknown
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long floor;
+    private final Map<Long, Long> ownerStamps = new ConcurrentHashMap<>();
+    private volatile long globalStamp;
+
+    private final Map<Long, Names> owners = new ConcurrentHashMap<>();
+    private volatile Names global;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder databaseLookups = new LongAdder();
+
+    public PetNameIndex(PetRepository petRepository, PetCountCache petCountCache,
+                        @Value("${pets.suggest.max-global-pets:100000}") long maxGlobalPets) {
+        this.petRepository = petRepository;
+        this.petCountCache = petCountCache;
+        this.maxGlobalPets = maxGlobalPets;
+    }
+
+    /**
+     * Up to {@code limit} pets whose name starts with {@code prefix}, ignoring case, in
+     * name order. A null owner id searches every pet.
+     */
+    public List<PetSuggestion> suggest(Long ownerId, String prefix, int limit) {
+        Names names = ownerId == null ? globalNames() : ownerNames(ownerId);
+        if (names == null) {
+            databaseLookups.increment();
+            PetFilter byPrefix = new PetFilter(null, null, null, prefix, null);
+            return petRepository.sliceResponses(PetSpecifications.matching(byPrefix),
+                            PageRequest.of(0, limit, Sort.by("name", "id")))
+                    .map(pet -> new PetSuggestion(pet.id(), pet.name()))
+                    .getContent();
+        }
+        return names.startingWith(prefix.toLowerCase(Locale.ROOT), limit);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onPetChanged(PetChangedEvent event) {
+        long stamp = sequence.incrementAndGet();
+        globalStamp = stamp;
+        if (event.ownerId() == null || ownerStamps.size() >= MAX_OWNERS) {
+            floor = stamp;
+            ownerStamps.clear();
+        } else {
+            ownerStamps.put(event.ownerId(), stamp);
+        }
+
+        if (!event.isSinglePet()) {
+            global = null;
+            if (event.ownerId() == null) {
+                owners.clear();
+            } else {
+                owners.remove(event.ownerId());
+            }
+            return;
+        }
+
+        Names currentGlobal = global;
+        if (currentGlobal != null) {
+            currentGlobal.apply(event.petId(), event.name());
+        }
+        if (event.ownerId() != null) {
+            Names names = owners.get(event.ownerId());
+            if (names != null) {
+                names.apply(event.petId(), event.name());
+            }
+        } else {
+            // An admin write does not know the owner; only the set holding the pet changes
+            for (Names names : owners.values()) {
+                if (names.contains(event.petId())) {
+                    names.apply(event.petId(), event.name());
+                }
+            }
+        }
+    }
+
+    public int ownerCount() {
+        return owners.size();
+    }
+
+    // -1 while the all-pets set is not built
+    public long globalSize() {
+        Names names = global;
+        return names == null ? -1 : names.size();
+    }
+
+    public long loads() {
+        return loads.sum();
+    }
+
+    public long databaseLookups() {
+        return databaseLookups.sum();
+    }
+
+    private Names ownerNames(Long ownerId) {
+        Names names = owners.get(ownerId);
+        if (names != null) {
+            return names;
+        }
+        long stamp = stampOf(ownerId);
+        names = new Names(petRepository.findSuggestionsByOwnerId(ownerId));
+        loads.increment();
+        synchronized (this) {
+            if (stampOf(ownerId) == stamp) {
+                if (owners.size() >= MAX_OWNERS) {
+                    owners.clear();
+                }
+                owners.putIfAbsent(ownerId, names);
+            }
+        }
+        return names;
+    }
+
+    // Null when the table is too large to hold every name; the caller then asks the database
+    private Names globalNames() {
+        Names names = global;
+        if (names != null) {
+            return names;
+        }
+        if (petCountCache.totalPets() > maxGlobalPets) {
+            return null;
+        }
+        long stamp = globalStamp;
+        names = new Names(petRepository.findAllSuggestions());
+        loads.increment();
+        synchronized (this) {
+            if (globalStamp == stamp && global == null) {
+                global = names;
+            }
+        }
+        return names;
+    }
+
+    private long stampOf(Long ownerId) {
+        return Math.max(floor, ownerStamps.getOrDefault(ownerId, 0L));
+    }
+
+    // Readers walk the sorted set without locking; writers are serialized by the index
+    private static final class Names {
+
+        private final NavigableSet<Entry> sorted = new ConcurrentSkipListSet<>();
+        private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+
+        Names(List<PetSuggestion> pets) {
+            pets.forEach(pet -> apply(pet.id(), pet.name()));
+        }
+
+        // A null name removes the pet
+        void apply(Long petId, String name) {
+            Entry previous = name == null
+                    ? byId.remove(petId)
+                    : byId.put(petId, new Entry(name.toLowerCase(Locale.ROOT), new PetSuggestion(petId, name)));
+            if (previous != null) {
+                sorted.remove(previous);
+            }
+            if (name != null) {
+                sorted.add(byId.get(petId));
+            }
+        }
+
+        boolean contains(Long petId) {
+            return byId.containsKey(petId);
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        List<PetSuggestion> startingWith(String lowerPrefix, int limit) {
+            List<PetSuggestion> matches = new ArrayList<>(Math.min(limit, 16));
+            for (Entry entry : sorted.tailSet(new Entry(lowerPrefix, null), true)) {
+                if (matches.size() == limit || !entry.key.startsWith(lowerPrefix)) {
+                    break;
+                }
+                matches.add(entry.pet);
+            }
+            return matches;
+        }
+    }
+
+    // Ordered by lower-cased name, then id; the probe for a prefix has no pet and sorts first
+    private record Entry(String key, PetSuggestion pet) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = key.compareTo(other.key);
+            if (byKey != 0) {
+                return byKey;
+            }
+            if (pet == null || other.pet == null) {
+                return pet == other.pet ? 0 : pet == null ? -1 : 1;
+            }
+            return Long.compare(pet.id(), other.pet.id());
+        }
+    }
+}
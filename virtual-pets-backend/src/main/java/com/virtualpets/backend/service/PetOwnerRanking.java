@@ -0,0 +1,200 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.config.CacheConfig;
+import com.virtualpets.backend.dto.response.TopOwnerResponse;
+import com.virtualpets.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Every user who owns pets, sorted by pet count, for the top-owners endpoint. Loaded from
+ * users.pet_count when the application is ready and moved by the
+ * {@link OwnerPetCountChange}s pet writes publish, after they commit, so a ranking read
+ * never touches the database.
+ * <p>
+ * As in {@link PetStatsCounters}, a background check reloads the ranking every
+ * {@code users.top-owners.reconcile-interval-ms}, or within
+ * {@code users.top-owners.dirty-check-ms} of a change for an owner it could not place;
+ * changes that commit during a reload go to both the old and the new ranking, so the
+ * new one can be off by a change that its query already saw until the next reload.
+ * users.pet_count itself is exact; only this copy of it can drift.
+ */
+@Component
+public class PetOwnerRanking {
+
+    private static final Comparator<TopOwnerResponse> MOST_PETS_FIRST =
+            Comparator.comparingLong(TopOwnerResponse::petCount).reversed().thenComparing(TopOwnerResponse::id);
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final long reconcileIntervalMillis;
+    private final LongSupplier clock;
+
+    private volatile Ranks current;
+    private volatile Ranks rebuilding;
+    private volatile long reloadedAt;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final LongAdder reloads = new LongAdder();
+
+    @Autowired
+    public PetOwnerRanking(UserRepository userRepository, CacheManager cacheManager,
+                           @Value("${users.top-owners.reconcile-interval-ms:300000}") long reconcileIntervalMillis) {
+        this(userRepository, cacheManager, reconcileIntervalMillis, System::currentTimeMillis);
+    }
+
+    public PetOwnerRanking(UserRepository userRepository, CacheManager cacheManager, long reconcileIntervalMillis,
+                           LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+        this.clock = clock;
+    }
+
+    // The owners with the most pets, ties broken by user id
+    public List<TopOwnerResponse> top(int limit) {
+        Ranks ranks = current;
+        if (ranks == null) {
+            reload();
+            ranks = current;
+        }
+        return ranks.top(limit);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPetCountChanged(OwnerPetCountChange change) {
+        Ranks ranks = current;
+        String username = change.username();
+        if (ranks != null) {
+            String ranked = ranks.apply(change.ownerId(), username, change.delta());
+            if (ranked == null) {
+                dirty.set(true);
+            } else {
+                username = ranked;
+            }
+        }
+        Ranks next = rebuilding;
+        if (next != null) {
+            next.apply(change.ownerId(), username, change.delta());
+        }
+
+        // The stored count changed without an entity update, so IdentityChangeListener never sees it and
+        // the cached user responses carrying it are dropped here: the owner's own entry, or every entry
+        // when the owner could not be named, and every cached page since any of them may list the owner
+        Cache users = cacheManager.getCache(CacheConfig.USER_BY_USERNAME);
+        if (users != null) {
+            if (username != null) {
+                users.evict(username);
+            } else {
+                users.clear();
+            }
+        }
+        Cache pages = cacheManager.getCache(CacheConfig.USER_PAGES);
+        if (pages != null) {
+            pages.clear();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${users.top-owners.dirty-check-ms:5000}",
+            initialDelayString = "${users.top-owners.dirty-check-ms:5000}")
+    public void reloadIfDue() {
+        if (dirty.get() || clock.getAsLong() - reloadedAt >= reconcileIntervalMillis) {
+            reload();
+        }
+    }
+
+    public synchronized void reload() {
+        Ranks next = new Ranks();
+        dirty.set(false);
+        rebuilding = next;
+        try {
+            for (TopOwnerResponse owner : userRepository.findPetOwners()) {
+                next.apply(owner.id(), owner.username(), owner.petCount());
+            }
+            current = next;
+            reloadedAt = clock.getAsLong();
+            reloads.increment();
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    // Owners currently ranked; 0 before the first load
+    public int size() {
+        Ranks ranks = current;
+        return ranks == null ? 0 : ranks.size();
+    }
+
+    public long reloads() {
+        return reloads.sum();
+    }
+
+    // Reads and changes share one lock: a change removes and re-adds the owner, and a reader
+    // walking between the two would see the owner missing. A read copies at most the limit
+    private static final class Ranks {
+
+        private final NavigableSet<TopOwnerResponse> sorted = new TreeSet<>(MOST_PETS_FIRST);
+        private final Map<Long, TopOwnerResponse> byId = new HashMap<>();
+
+        // Returns the owner's username, or null when the owner is not ranked and none was given
+        synchronized String apply(Long ownerId, String username, long delta) {
+            TopOwnerResponse previous = byId.get(ownerId);
+            if (previous == null && username == null) {
+                return null;
+            }
+            long petCount = delta;
+            if (previous != null) {
+                sorted.remove(previous);
+                petCount += previous.petCount();
+                username = previous.username();
+            }
+            if (petCount > 0) {
+                TopOwnerResponse updated = new TopOwnerResponse(ownerId, username, petCount);
+                byId.put(ownerId, updated);
+                sorted.add(updated);
+            } else {
+                byId.remove(ownerId);
+            }
+            return username;
+        }
+
+        synchronized int size() {
+            return byId.size();
+        }
+
+        synchronized List<TopOwnerResponse> top(int limit) {
+            List<TopOwnerResponse> owners = new ArrayList<>(Math.min(limit, 16));
+            for (TopOwnerResponse owner : sorted) {
+                if (owners.size() == limit) {
+                    break;
+                }
+                owners.add(owner);
+            }
+            return owners;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.virtualpets.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache of serialized pet listing pages, keyed by owner and query and held
+ * off-heap in direct buffers so hot pages add nothing to GC work. Each owner has a
+ * generation stamp that moves forward after every committed change to their pets; an
+ * entry is only served while its stamp is current, so writes invalidate without a scan.
+ * The stamp is read before the page is loaded, which means a write racing with the
+ * load leaves the stored entry already stale rather than wrong. Other instances' writes
+ * are only noticed when the entry expires.
+ */
+@Component
+public class PetPageCache {
+
+    private static final int MAX_OWNERS = 100_000;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    // Stamps come from one sequence so they never repeat; the floor covers writes whose owner is unknown
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long floor;
+    private final Map<Long, Long> ownerStamps = new ConcurrentHashMap<>();
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+
+    @Autowired
+    public PetPageCache(@Value("${pets.page-cache.enabled:true}") boolean enabled,
+                        @Value("${pets.page-cache.max-bytes:16777216}") long maxBytes,
+                        @Value("${pets.page-cache.ttl-ms:30000}") long ttlMillis) {
+        this(enabled, maxBytes, ttlMillis, System::currentTimeMillis);
+    }
+
+    public PetPageCache(boolean enabled, long maxBytes, long ttlMillis, LongSupplier clock) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("pets.page-cache.max-bytes must be positive");
+        }
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.max(1, maxBytes / 16);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached JSON for this owner and query, or loads, stores and returns it.
+     * The returned buffer is read-only and positioned at the start of the page.
+     */
+    public ByteBuffer getOrLoad(Long ownerId, String query, PageLoader loader) throws IOException {
+        if (!enabled) {
+            return ByteBuffer.wrap(loader.load());
+        }
+        Key key = new Key(ownerId, query);
+        long stamp = stampOf(ownerId);
+        long now = clock.getAsLong();
+
+        ByteBuffer cached = lookup(key, stamp, now);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        byte[] json = loader.load();
+        store(key, stamp, json, now);
+        return ByteBuffer.wrap(json).asReadOnlyBuffer();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        if (event.ownerId() == null || ownerStamps.size() >= MAX_OWNERS) {
+            floor = sequence.incrementAndGet();
+            ownerStamps.clear();
+        } else {
+            ownerStamps.put(event.ownerId(), sequence.incrementAndGet());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    public long oversized() {
+        return oversized.sum();
+    }
+
+    // Hits per thousand lookups, so it fits the long-valued metrics map
+    public long hitRatioPerMille() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : hitCount * 1000 / total;
+    }
+
+    private long stampOf(Long ownerId) {
+        return Math.max(floor, ownerStamps.getOrDefault(ownerId, 0L));
+    }
+
+    private synchronized ByteBuffer lookup(Key key, long stamp, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.stamp != stamp || now - entry.storedAt >= ttlMillis) {
+            entries.remove(key);
+            usedBytes -= entry.size();
+            invalidations.increment();
+            return null;
+        }
+        return entry.json.duplicate();
+    }
+
+    private void store(Key key, long stamp, byte[] json, long now) {
+        if (json.length > maxEntryBytes) {
+            oversized.increment();
+            return;
+        }
+        // Copied off-heap outside the lock; readers only ever see read-only duplicates
+        ByteBuffer buffer = ByteBuffer.allocateDirect(json.length).put(json).flip().asReadOnlyBuffer();
+        Entry entry = new Entry(buffer, stamp, now);
+
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                usedBytes -= previous.size();
+            }
+            usedBytes += entry.size();
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (usedBytes > maxBytes && eldest.hasNext()) {
+                usedBytes -= eldest.next().size();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface PageLoader {
+        byte[] load() throws IOException;
+    }
+
+    private record Key(Long ownerId, String query) { }
+
+    private record Entry(ByteBuffer json, long stamp, long storedAt) {
+        int size() {
+            return json.capacity();
+        }
+    }
+}
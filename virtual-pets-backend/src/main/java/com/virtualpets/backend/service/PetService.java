@@ -1,19 +1,59 @@
 package com.virtualpets.backend.service;
 
+import com.virtualpets.backend.dto.request.PetBulkUpdateRequest;
+import com.virtualpets.backend.dto.request.PetFilter;
+import com.virtualpets.backend.dto.request.PetPatchRequest;
 import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.request.PetSortField;
+import com.virtualpets.backend.dto.request.PetTransferRequest;
+import com.virtualpets.backend.dto.response.BulkOperationResponse;
+import com.virtualpets.backend.dto.response.CursorPageResponse;
+import com.virtualpets.backend.dto.response.PetBatchResponse;
 import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.dto.response.PetStatsResponse;
+import com.virtualpets.backend.dto.response.PetSuggestion;
+import com.virtualpets.backend.dto.response.SliceResponse;
+import com.virtualpets.backend.security.AuthenticatedUser;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
 
 
 public interface PetService {
-    PetResponse createPet(PetRequest petRequest, String username);
+    PetResponse createPet(PetRequest petRequest, AuthenticatedUser principal);
+
+    PetBatchResponse createPets(List<PetRequest> petRequests, AuthenticatedUser principal);
+
+    Page<PetResponse> getAllPets(AuthenticatedUser principal, PetFilter filter, Pageable pageable);
+
+    SliceResponse<PetResponse> getPetSlice(AuthenticatedUser principal, PetFilter filter, Pageable pageable,
+                                           boolean includeTotal);
+
+    CursorPageResponse<PetResponse> getPetsAfter(AuthenticatedUser principal, PetFilter filter, PetSortField sortField,
+                                                 Sort.Direction direction, String cursor, int size);
+
+    PetStatsResponse getPetStats(AuthenticatedUser principal);
+
+    List<PetSuggestion> suggestPets(String prefix, int limit, AuthenticatedUser principal);
+
+    Optional<Long> findPetVersion(Long id, AuthenticatedUser principal);
+
+    String getListingTag(AuthenticatedUser principal);
+
+    PetResponse getPetById(Long id, AuthenticatedUser principal);
+
+    PetResponse updatePet(Long id, PetRequest petRequest, Long expectedVersion, AuthenticatedUser principal);
+
+    PetResponse patchPet(Long id, PetPatchRequest patchRequest, Long expectedVersion, AuthenticatedUser principal);
 
-    Page<PetResponse> getAllPets(String username, Pageable pageable);
+    void deletePet(Long id, AuthenticatedUser principal);
 
-    PetResponse getPetById(Long id, String username);
+    BulkOperationResponse updatePets(PetBulkUpdateRequest request, AuthenticatedUser principal);
 
-    PetResponse updatePet(Long id, PetRequest petRequest, String username);
+    BulkOperationResponse deletePets(List<Long> ids, AuthenticatedUser principal);
 
-    void deletePet(Long id, String username);
+    BulkOperationResponse transferPets(PetTransferRequest request, AuthenticatedUser principal);
 }
@@ -0,0 +1,196 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.dto.response.PetStatsResponse;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.PetTypeAgeCount;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Pet counts by type and age bucket, kept in one {@link LongAdder} per (type, bucket)
+ * cell so concurrent writers do not contend. Built from one GROUP BY at startup and
+ * moved by the {@link PetStatsDelta} each write publishes, after it commits.
+ * <p>
+ * A background check rebuilds the counters every {@code pets.stats.reconcile-interval-ms},
+ * or within {@code pets.stats.dirty-check-ms} of a write that could not say what it
+ * changed. That also picks up writes made by other instances. Deltas that commit while
+ * a rebuild runs go to both the old and the new counters, so none are lost; a write
+ * committed just before the rebuild's query can be counted twice until the next one.
+ */
+@Component
+public class PetStatsCounters {
+
+    // Upper bounds (exclusive) of every bucket but the last, which is open-ended
+    private static final int[] AGE_BOUNDS = {1, 2, 3, 5, 8, 11, 16, 21};
+    private static final String[] AGE_LABELS = {"0", "1", "2", "3-4", "5-7", "8-10", "11-15", "16-20", "21+"};
+    private static final PetType[] TYPES = PetType.values();
+    private static final int BUCKETS = AGE_LABELS.length;
+    static final int CELLS = TYPES.length * BUCKETS;
+
+    private final PetRepository petRepository;
+    private final long reconcileIntervalMillis;
+    private final LongSupplier clock;
+
+    private volatile Cells current;
+    private volatile Cells rebuilding;
+    private volatile long reconciledAt;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final LongAdder reconciles = new LongAdder();
+    private volatile long lastDrift;
+
+    @Autowired
+    public PetStatsCounters(PetRepository petRepository,
+                            @Value("${pets.stats.reconcile-interval-ms:300000}") long reconcileIntervalMillis) {
+        this(petRepository, reconcileIntervalMillis, System::currentTimeMillis);
+    }
+
+    public PetStatsCounters(PetRepository petRepository, long reconcileIntervalMillis, LongSupplier clock) {
+        this.petRepository = petRepository;
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+        this.clock = clock;
+    }
+
+    public PetStatsResponse snapshot() {
+        Cells cells = current;
+        if (cells == null) {
+            reconcile();
+            cells = current;
+        }
+        long total = 0;
+        Map<PetType, Long> byType = new EnumMap<>(PetType.class);
+        long[] byBucket = new long[BUCKETS];
+        for (PetType type : TYPES) {
+            long typeTotal = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                // A delta racing a rebuild can briefly push a cell below zero
+                long count = Math.max(0, cells.get(type.ordinal() * BUCKETS + bucket));
+                typeTotal += count;
+                byBucket[bucket] += count;
+            }
+            byType.put(type, typeTotal);
+            total += typeTotal;
+        }
+        Map<String, Long> byAge = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            byAge.put(AGE_LABELS[bucket], byBucket[bucket]);
+        }
+        return new PetStatsResponse(total, byType, byAge, Instant.ofEpochMilli(reconciledAt));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatsChanged(PetStatsDelta delta) {
+        if (delta.isUnknown()) {
+            dirty.set(true);
+            return;
+        }
+        Cells cells = current;
+        if (cells != null) {
+            cells.apply(delta);
+        }
+        Cells next = rebuilding;
+        if (next != null) {
+            next.apply(delta);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${pets.stats.dirty-check-ms:5000}",
+            initialDelayString = "${pets.stats.dirty-check-ms:5000}")
+    public void reconcileIfDue() {
+        if (dirty.get() || clock.getAsLong() - reconciledAt >= reconcileIntervalMillis) {
+            reconcile();
+        }
+    }
+
+    // Rebuilds the counters from the database and records how far the old ones had drifted
+    public synchronized void reconcile() {
+        Cells next = new Cells();
+        dirty.set(false);
+        rebuilding = next;
+        try {
+            for (PetTypeAgeCount row : petRepository.countByTypeAndAge()) {
+                next.add(cell(row.type(), row.age()), row.count());
+            }
+            Cells previous = current;
+            current = next;
+            lastDrift = previous == null ? 0 : previous.distanceTo(next);
+            reconciledAt = clock.getAsLong();
+            reconciles.increment();
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    public long reconciles() {
+        return reconciles.sum();
+    }
+
+    // Sum of per-cell differences found by the last reconcile; non-zero means deltas were missed
+    public long lastDrift() {
+        return lastDrift;
+    }
+
+    static int cell(PetType type, int age) {
+        int bucket = 0;
+        while (bucket < AGE_BOUNDS.length && age >= AGE_BOUNDS[bucket]) {
+            bucket++;
+        }
+        return type.ordinal() * BUCKETS + bucket;
+    }
+
+    private static final class Cells {
+
+        private final LongAdder[] counts = new LongAdder[CELLS];
+
+        Cells() {
+            for (int i = 0; i < CELLS; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void add(int cell, long count) {
+            counts[cell].add(count);
+        }
+
+        void apply(PetStatsDelta delta) {
+            for (int i = 0; i < CELLS; i++) {
+                long count = delta.count(i);
+                if (count != 0) {
+                    counts[i].add(count);
+                }
+            }
+        }
+
+        long get(int cell) {
+            return counts[cell].sum();
+        }
+
+        long distanceTo(Cells other) {
+            long distance = 0;
+            for (int i = 0; i < CELLS; i++) {
+                distance += Math.abs(get(i) - other.get(i));
+            }
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.repository.LockedPet;
+
+import java.util.List;
+
+/**
+ * Pets added and removed by one write, by type and age bucket. Published inside the
+ * writing transaction and applied to {@link PetStatsCounters} after commit, so rolled
+ * back writes never count. Writes that cannot tell which pets they changed publish
+ * {@link #unknown()} instead, which schedules a reconcile.
+ */
+public final class PetStatsDelta {
+
+    private final long[] counts;
+
+    private PetStatsDelta(long[] counts) {
+        this.counts = counts;
+    }
+
+    public PetStatsDelta() {
+        this(new long[PetStatsCounters.CELLS]);
+    }
+
+    public static PetStatsDelta unknown() {
+        return new PetStatsDelta(null);
+    }
+
+    public static PetStatsDelta added(PetType type, int age) {
+        return new PetStatsDelta().add(type, age, 1);
+    }
+
+    public static PetStatsDelta changed(PetType oldType, int oldAge, PetType newType, int newAge) {
+        return new PetStatsDelta().add(oldType, oldAge, -1).add(newType, newAge, 1);
+    }
+
+    // The pets locked by PetRepository#lockByIds before they are deleted or replaced
+    public static PetStatsDelta removed(List<LockedPet> pets) {
+        PetStatsDelta delta = new PetStatsDelta();
+        pets.forEach(pet -> delta.add(pet.type(), pet.age(), -1));
+        return delta;
+    }
+
+    public PetStatsDelta add(PetType type, int age, long count) {
+        counts[PetStatsCounters.cell(type, age)] += count;
+        return this;
+    }
+
+    public boolean isUnknown() {
+        return counts == null;
+    }
+
+    long count(int cell) {
+        return counts[cell];
+    }
+}
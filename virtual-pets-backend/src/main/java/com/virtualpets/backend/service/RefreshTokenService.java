@@ -0,0 +1,18 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.model.User;
+
+public interface RefreshTokenService {
+    IssuedToken createRefreshToken(User user);
+
+    RotatedToken rotate(String refreshToken);
+
+    void revokeFamily(String familyId);
+
+    void revokeAll(Long userId);
+
+    // The family id names the login the token belongs to and is carried by its access tokens
+    record IssuedToken(String refreshToken, String familyId) { }
+
+    record RotatedToken(User user, IssuedToken token) { }
+}
@@ -0,0 +1,69 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.util.JwtUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops a user's cached identity and verified tokens when their role set is written.
+ * Changing only the roles of a user does not update the user row, so JPA callbacks and
+ * {@link IdentityChangeListener} never see it; Hibernate's collection events do.
+ */
+@Component
+public class RoleAssignmentListener implements PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserIdentityCache identityCache;
+    private final JwtUtil jwtUtil;
+
+    public RoleAssignmentListener(EntityManagerFactory entityManagerFactory, UserIdentityCache identityCache,
+                                  JwtUtil jwtUtil) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.identityCache = identityCache;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onRolesWritten(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onRolesWritten(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        onRolesWritten(event);
+    }
+
+    private void onRolesWritten(AbstractCollectionEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof User user) {
+            identityCache.evict(user.getId(), user.getUsername());
+            jwtUtil.getTokenCache().invalidateUser(user.getId());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.RoleName;
+import com.virtualpets.backend.repository.RoleRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Role rows by name, loaded once the application (and the data initializer) is up.
+ * Roles are attached to new users as detached references, so registering a user does
+ * not query the roles table. Any role write clears the snapshot and the next lookup
+ * reloads it.
+ */
+@Component
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+    private volatile Map<String, Role> byName = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<String, Role> roles = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            roles.put(role.getName(), role);
+        }
+        byName = Map.copyOf(roles);
+    }
+
+    public Role require(RoleName name) {
+        Role role = byName.get(name.name());
+        if (role == null) {
+            load();
+            role = byName.get(name.name());
+        }
+        if (role == null) {
+            throw new IllegalStateException(name + " not found");
+        }
+        return role;
+    }
+
+    public void invalidate() {
+        byName = Map.of();
+    }
+
+    public int size() {
+        return byName.size();
+    }
+}
@@ -0,0 +1,125 @@
+package com.virtualpets.backend.service;
+
+import com.virtualpets.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded username and user id to (id, role mask) cache. Only existing users are cached, so
+ * a new registration is never hidden by a stale miss. The JWT filter resolves the role mask
+ * of every request here by the token's user id, so roles are not trusted from the token for
+ * longer than the TTL. Entries are dropped when the user or any role is written through JPA
+ * in this instance, and otherwise expire after the TTL, which bounds how long a role change
+ * made elsewhere can go unnoticed.
+ */
+@Component
+public class UserIdentityCache {
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entriesById = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public UserIdentityCache(UserRepository userRepository,
+                             @Value("${auth.identity-cache.max-entries:10000}") int maxEntries,
+                             @Value("${auth.identity-cache.ttl-ms:60000}") long ttlMillis) {
+        this(userRepository, maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    public UserIdentityCache(UserRepository userRepository, int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("auth.identity-cache.max-entries must be positive");
+        }
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    public Optional<Identity> find(String username) {
+        long now = clock.getAsLong();
+        Entry cached = entries.get(username);
+        if (cached != null && now - cached.loadedAt < ttlMillis) {
+            hits.increment();
+            return Optional.of(cached.identity);
+        }
+        misses.increment();
+
+        Optional<Identity> loaded = userRepository.findByUsername(username)
+                .map(user -> new Identity(user.getId(), user.getUsername(), user.getRoleMask()));
+        if (loaded.isPresent()) {
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+            entries.put(username, new Entry(loaded.get(), now));
+        } else if (cached != null) {
+            entries.remove(username, cached);
+        }
+        return loaded;
+    }
+
+    public Optional<Identity> findById(Long id) {
+        long now = clock.getAsLong();
+        Entry cached = entriesById.get(id);
+        if (cached != null && now - cached.loadedAt < ttlMillis) {
+            hits.increment();
+            return Optional.of(cached.identity);
+        }
+        misses.increment();
+
+        Optional<Identity> loaded = userRepository.findById(id)
+                .map(user -> new Identity(user.getId(), user.getUsername(), user.getRoleMask()));
+        if (loaded.isPresent()) {
+            if (entriesById.size() >= maxEntries) {
+                entriesById.clear();
+            }
+            entriesById.put(id, new Entry(loaded.get(), now));
+        } else if (cached != null) {
+            entriesById.remove(id, cached);
+        }
+        return loaded;
+    }
+
+    public void evict(Long id, String username) {
+        if (id != null) {
+            entriesById.remove(id);
+        }
+        if (username != null) {
+            entries.remove(username);
+        }
+    }
+
+    public void evictAll() {
+        entries.clear();
+        entriesById.clear();
+    }
+
+    public int size() {
+        return entries.size() + entriesById.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public record Identity(Long id, String username, int roleMask) { }
+
+    private record Entry(Identity identity, long loadedAt) { }
+}
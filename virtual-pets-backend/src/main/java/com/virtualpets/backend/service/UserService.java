@@ -1,12 +1,15 @@
 package com.virtualpets.backend.service;
 
+import com.virtualpets.backend.dto.response.TopOwnerResponse;
 import com.virtualpets.backend.dto.response.UserResponse;
-import org.springframework.security.core.GrantedAuthority;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import org.springframework.data.domain.Page;
 
-import java.util.Collection;
 import java.util.List;
 
 public interface UserService {
-    List<UserResponse> getAllUsers(Collection<? extends GrantedAuthority> roles);
-    UserResponse getUserByUsername(String requestedUsername, String callerUsername, Collection<? extends GrantedAuthority> roles);
+    Page<UserResponse> getAllUsers(AuthenticatedUser caller, int page, int size);
+    UserResponse getUserByUsername(String requestedUsername, AuthenticatedUser caller);
+    List<TopOwnerResponse> getTopOwners(AuthenticatedUser caller, int limit);
+    void evictAllCaches();
 }
@@ -1,47 +1,109 @@
 package com.virtualpets.backend.service.impl;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.virtualpets.backend.dto.request.LoginRequest;
+import com.virtualpets.backend.dto.request.RefreshRequest;
 import com.virtualpets.backend.dto.request.RegisterRequest;
 import com.virtualpets.backend.dto.response.AuthResponse;
 import com.virtualpets.backend.exception.InvalidCredentialsException;
 import com.virtualpets.backend.exception.UserAlreadyExistsException;
 import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.RoleName;
 import com.virtualpets.backend.model.User;
-import com.virtualpets.backend.repository.RoleRepository;
 import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.PasswordHashingExecutor;
+import com.virtualpets.backend.security.TokenRevocationList;
 import com.virtualpets.backend.service.AuthService;
+import com.virtualpets.backend.service.RefreshTokenService;
+import com.virtualpets.backend.service.RoleRegistry;
 import com.virtualpets.backend.util.JwtUtil;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final TokenRevocationList revocationList;
 
     public AuthServiceImpl(UserRepository userRepository,
-                           RoleRepository roleRepository,
+                           RoleRegistry roleRegistry,
                            PasswordEncoder passwordEncoder,
-                           JwtUtil jwtUtil) {
+                           JwtUtil jwtUtil,
+                           RefreshTokenService refreshTokenService,
+                           PasswordHashingExecutor hashingExecutor,
+                           TokenRevocationList revocationList) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.hashingExecutor = hashingExecutor;
+        this.revocationList = revocationList;
     }
 
     @Override
-    public AuthResponse register(RegisterRequest request) {
-        userRepository.findByUsername(request.username())
-                .ifPresent(u -> { throw new UserAlreadyExistsException("Username already exists"); });
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
+        return hashingExecutor.submit(() -> doRegister(request));
+    }
+
+    @Override
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
+        return hashingExecutor.submit(() -> doLogin(request));
+    }
+
+    // Renewal is a hashed-token lookup; the password hash is not touched again
+    @Override
+    public AuthResponse refresh(RefreshRequest request) {
+        RefreshTokenService.RotatedToken rotated = refreshTokenService.rotate(request.refreshToken());
+        return buildResponse(rotated.user(), rotated.token());
+    }
+
+    // Ends the login the access token came from: its own id and its refresh family are revoked,
+    // so the client cannot simply renew the session, while the user's other logins keep theirs.
+    // Tokens issued before the session claim existed only lose the access token
+    @Override
+    public void logout(String accessToken) {
+        String sessionId = JwtUtil.sessionId(revoke(accessToken));
+        if (sessionId != null) {
+            refreshTokenService.revokeFamily(sessionId);
+        }
+    }
+
+    // Every refresh family of the user is revoked; access tokens held by other logins run out on their own
+    @Override
+    public void logoutEverywhere(String accessToken) {
+        Long userId = JwtUtil.userId(revoke(accessToken));
+        if (userId != null) {
+            refreshTokenService.revokeAll(userId);
+        }
+    }
 
-        Role userRole = roleRepository.findByName("ROLE_USER")
-                .orElseThrow(() -> new RuntimeException("ROLE_USER not found"));
+    // --- Helpers ---
+    // The token must still verify, so a forged jti cannot be used to fill the revocation table
+    private DecodedJWT revoke(String accessToken) {
+        DecodedJWT jwt = jwtUtil.verifyToken(accessToken);
+        if (jwt.getId() != null && jwt.getExpiresAt() != null) {
+            revocationList.revoke(jwt.getId(), jwt.getExpiresAt().toInstant());
+        }
+        return jwt;
+    }
+
+    private AuthResponse doRegister(RegisterRequest request) {
+        if (userRepository.existsByUsername(request.username())) {
+            throw new UserAlreadyExistsException("Username already exists");
+        }
+
+        Role userRole = roleRegistry.require(RoleName.ROLE_USER);
 
         User user = new User();
         user.setUsername(request.username());
@@ -49,17 +111,10 @@ public class AuthServiceImpl implements AuthService {
         user.setRoles(Set.of(userRole));
         userRepository.save(user);
 
-        Set<String> roles = user.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
-
-        String token = jwtUtil.generateToken(user.getUsername(), roles);
-
-        return new AuthResponse(user.getUsername(), token, roles);
+        return buildResponse(user, refreshTokenService.createRefreshToken(user));
     }
 
-    @Override
-    public AuthResponse login(LoginRequest request) {
+    private AuthResponse doLogin(LoginRequest request) {
         User user = userRepository.findByUsername(request.username())
                 .orElseThrow(() -> new InvalidCredentialsException("Invalid username or password"));
 
@@ -67,12 +122,22 @@ public class AuthServiceImpl implements AuthService {
             throw new InvalidCredentialsException("Invalid username or password");
         }
 
+        // The plaintext is only available here, so re-encode hashes made with an older cost or algorithm
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(request.password()));
+            userRepository.save(user);
+        }
+
+        return buildResponse(user, refreshTokenService.createRefreshToken(user));
+    }
+
+    private AuthResponse buildResponse(User user, RefreshTokenService.IssuedToken refreshToken) {
         Set<String> roles = user.getRoles().stream()
                 .map(Role::getName)
                 .collect(Collectors.toSet());
 
-        String token = jwtUtil.generateToken(user.getUsername(), roles);
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername(), roles, refreshToken.familyId());
 
-        return new AuthResponse(user.getUsername(), token, roles);
+        return new AuthResponse(user.getUsername(), token, refreshToken.refreshToken(), roles);
     }
 }
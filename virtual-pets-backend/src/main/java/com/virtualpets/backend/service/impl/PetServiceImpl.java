@@ -1,112 +1,456 @@
 package com.virtualpets.backend.service.impl;
 
+import com.virtualpets.backend.dto.request.PetBulkUpdateRequest;
+import com.virtualpets.backend.dto.request.PetCursor;
+import com.virtualpets.backend.dto.request.PetFilter;
+import com.virtualpets.backend.dto.request.PetPatchRequest;
 import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.request.PetSortField;
+import com.virtualpets.backend.dto.request.PetTransferRequest;
+import com.virtualpets.backend.dto.response.BulkOperationResponse;
+import com.virtualpets.backend.dto.response.CursorPageResponse;
+import com.virtualpets.backend.dto.response.PetBatchResponse;
 import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.dto.response.PetStatsResponse;
+import com.virtualpets.backend.dto.response.PetSuggestion;
+import com.virtualpets.backend.dto.response.SliceResponse;
+import com.virtualpets.backend.exception.PreconditionFailedException;
 import com.virtualpets.backend.exception.ResourceNotFoundException;
 import com.virtualpets.backend.exception.UnauthorizedActionException;
 import com.virtualpets.backend.mapper.PetMapper;
 import com.virtualpets.backend.model.Pet;
+import com.virtualpets.backend.model.Pet.PetType;
 import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.LockedPet;
 import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.PetSpecifications;
 import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.OwnerPetCountChange;
+import com.virtualpets.backend.service.PetChangedEvent;
+import com.virtualpets.backend.service.PetCountCache;
+import com.virtualpets.backend.service.PetNameIndex;
 import com.virtualpets.backend.service.PetService;
+import com.virtualpets.backend.service.PetStatsCounters;
+import com.virtualpets.backend.service.PetStatsDelta;
+import com.virtualpets.backend.service.UserIdentityCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class PetServiceImpl implements PetService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_BULK_IDS = 1000;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_PREFIX_LENGTH = 255;
+
     private final PetRepository petRepository;
     private final UserRepository userRepository;
+    private final PetCountCache petCountCache;
+    private final UserIdentityCache identityCache;
+    private final PetNameIndex nameIndex;
+    private final PetStatsCounters statsCounters;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PetServiceImpl(PetRepository petRepository, UserRepository userRepository) {
+    public PetServiceImpl(PetRepository petRepository, UserRepository userRepository, PetCountCache petCountCache,
+                          UserIdentityCache identityCache, PetNameIndex nameIndex, PetStatsCounters statsCounters,
+                          ApplicationEventPublisher eventPublisher) {
         this.petRepository = petRepository;
         this.userRepository = userRepository;
+        this.petCountCache = petCountCache;
+        this.identityCache = identityCache;
+        this.nameIndex = nameIndex;
+        this.statsCounters = statsCounters;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     @Transactional
-    public PetResponse createPet(PetRequest petRequest, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
-
+    public PetResponse createPet(PetRequest petRequest, AuthenticatedUser principal) {
+        addPetCount(principal.getId(), principal.getUsername(), 1);
         Pet pet = Pet.builder()
                 .name(petRequest.name())
                 .type(petRequest.type())
                 .age(petRequest.age())
-                .owner(user)
+                .owner(userRepository.getReferenceById(principal.getId()))
                 .build();
 
-        return PetMapper.toResponse(petRepository.save(pet));
+        PetResponse response = PetMapper.toResponse(petRepository.save(pet), principal.getUsername());
+        eventPublisher.publishEvent(PetChangedEvent.saved(principal.getId(), response.id(), response.name()));
+        eventPublisher.publishEvent(PetStatsDelta.added(response.type(), response.age()));
+        return response;
     }
 
+    /**
+     * One transaction and one owner reference for the whole list. Ids are drawn from the
+     * pooled generator at persist time, so the inserts go out as JDBC batches on flush.
+     */
     @Override
-    @Transactional(readOnly = true)
-    public Page<PetResponse> getAllPets(String username, Pageable pageable) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+    @Transactional
+    public PetBatchResponse createPets(List<PetRequest> petRequests, AuthenticatedUser principal) {
+        addPetCount(principal.getId(), principal.getUsername(), petRequests.size());
+        User owner = userRepository.getReferenceById(principal.getId());
+        List<Pet> pets = petRequests.stream()
+                .map(request -> Pet.builder()
+                        .name(request.name())
+                        .type(request.type())
+                        .age(request.age())
+                        .owner(owner)
+                        .build())
+                .toList();
+
+        List<PetResponse> created = petRepository.saveAll(pets).stream()
+                .map(pet -> PetMapper.toResponse(pet, principal.getUsername()))
+                .toList();
+        PetStatsDelta stats = new PetStatsDelta();
+        created.forEach(pet -> stats.add(pet.type(), pet.age(), 1));
+        eventPublisher.publishEvent(new PetChangedEvent(principal.getId()));
+        eventPublisher.publishEvent(stats);
+
+        return new PetBatchResponse(created.size(), created);
+    }
 
-        if (user.hasRole("ROLE_ADMIN")) {
-            return petRepository.findAll(pageable)
-                    .map(PetMapper::toResponse);
+    // Unfiltered listings keep the fixed JPQL queries; filters go through a criteria query
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PetResponse> getAllPets(AuthenticatedUser principal, PetFilter filter, Pageable pageable) {
+        if (!filter.isEmpty()) {
+            return petRepository.findResponses(listingSpec(principal, filter), pageable);
+        }
+        if (principal.isAdmin()) {
+            return petRepository.findAllResponses(pageable);
         }
 
-        return petRepository.findByOwner(user, pageable)
-                .map(PetMapper::toResponse);
+        return petRepository.findResponsesByOwnerId(principal.getId(), pageable);
     }
 
+    // Cached totals are for whole listings, so a filtered slice never carries one
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<PetResponse> getPetSlice(AuthenticatedUser principal, PetFilter filter, Pageable pageable,
+                                                  boolean includeTotal) {
+        Slice<PetResponse> slice;
+        Long total = null;
+        if (!filter.isEmpty()) {
+            slice = petRepository.sliceResponses(listingSpec(principal, filter), pageable);
+        } else if (principal.isAdmin()) {
+            slice = petRepository.sliceAllResponses(pageable);
+            if (includeTotal) {
+                total = petCountCache.totalPets();
+            }
+        } else {
+            slice = petRepository.sliceResponsesByOwnerId(principal.getId(), pageable);
+            if (includeTotal) {
+                total = petCountCache.petsOwnedBy(principal.getId());
+            }
+        }
+
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), total);
+    }
 
+    // Reads one extra row to learn whether another page exists without counting
     @Override
     @Transactional(readOnly = true)
-    public PetResponse getPetById(Long id, String username) {
-        Pet pet = petRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Pet not found with id: " + id));
+    public CursorPageResponse<PetResponse> getPetsAfter(AuthenticatedUser principal, PetFilter filter,
+                                                        PetSortField sortField, Sort.Direction direction,
+                                                        String cursor, int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        PetCursor after = cursor == null || cursor.isEmpty()
+                ? null
+                : PetCursor.decode(cursor, sortField, direction);
+        Long ownerId = principal.isAdmin() ? null : principal.getId();
+        Specification<Pet> matching = filter.isEmpty() ? null : PetSpecifications.matching(filter);
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+        List<PetResponse> rows = petRepository.findResponsesAfter(ownerId, matching, sortField, direction, after, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<PetResponse> content = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore
+                ? PetCursor.after(sortField, direction, content.getLast()).encode()
+                : null;
+
+        return new CursorPageResponse<>(List.copyOf(content), content.size(), nextCursor);
+    }
+
+    private static Specification<Pet> listingSpec(AuthenticatedUser principal, PetFilter filter) {
+        Specification<Pet> matching = PetSpecifications.matching(filter);
+        return principal.isAdmin() ? matching : PetSpecifications.ownedBy(principal.getId()).and(matching);
+    }
 
-        if (pet.canBeManagedBy(user)) {
-            throw new UnauthorizedActionException("You are not authorized to view this pet");
+    // Served from the in-memory counters; they span every owner, so only admins may read them
+    @Override
+    public PetStatsResponse getPetStats(AuthenticatedUser principal) {
+        if (!principal.isAdmin()) {
+            throw new UnauthorizedActionException("You are not authorized to view pet statistics");
+        }
+        return statsCounters.snapshot();
+    }
+
+    // Served from the in-memory name index; owners only ever see their own pets
+    @Override
+    public List<PetSuggestion> suggestPets(String prefix, int limit, AuthenticatedUser principal) {
+        if (prefix == null || prefix.isBlank() || prefix.length() > MAX_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("prefix must be between 1 and " + MAX_PREFIX_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SUGGESTIONS);
         }
+        return nameIndex.suggest(principal.isAdmin() ? null : principal.getId(), prefix, limit);
+    }
+
+    // Empty when the pet is missing or not the caller's; the full read then reports which
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findPetVersion(Long id, AuthenticatedUser principal) {
+        return principal.isAdmin()
+                ? petRepository.findVersionById(id)
+                : petRepository.findVersionByIdAndOwnerId(id, principal.getId());
+    }
 
-        return PetMapper.toResponse(pet);
+    // Admin listings span every owner and are not tagged
+    @Override
+    public String getListingTag(AuthenticatedUser principal) {
+        return principal.isAdmin() ? null : petCountCache.ownerListingTag(principal.getId());
     }
 
+    // One ownership-scoped select; the existence check only runs when it finds nothing
+    @Override
+    @Transactional(readOnly = true)
+    public PetResponse getPetById(Long id, AuthenticatedUser principal) {
+        Optional<PetResponse> pet = principal.isAdmin()
+                ? petRepository.findResponseById(id)
+                : petRepository.findResponseByIdAndOwnerId(id, principal.getId());
+
+        return pet.orElseThrow(() -> missingOrForbidden(id, "You are not authorized to view this pet"));
+    }
+
+    /**
+     * Full replacement as one UPDATE guarded by owner and, when the client sent If-Match,
+     * by version. The row is locked and read first through the primary key: the in-memory
+     * statistics need the replaced type and age, which a bare UPDATE cannot return, so
+     * this is a locking select plus the UPDATE rather than a single statement. That read
+     * also tells 404 from 403 from 412 and gives the version the response carries, so
+     * nothing is read back after the update. An UPDATE that still matches no row fails
+     * instead of reporting a version it never wrote.
+     */
     @Override
     @Transactional
-    public PetResponse updatePet(Long id, PetRequest petRequest, String username) {
-        Pet pet = petRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Pet not found with id: " + id));
+    public PetResponse updatePet(Long id, PetRequest petRequest, Long expectedVersion, AuthenticatedUser principal) {
+        LockedPet current = lockPet(id, principal, "You are not authorized to update this pet");
+        if (expectedVersion != null && !expectedVersion.equals(current.version())) {
+            throw versionConflict(id, current.version());
+        }
+        Instant now = Instant.now();
+        int updated = principal.isAdmin()
+                ? petRepository.updateById(id, expectedVersion, petRequest.name(), petRequest.type(), petRequest.age(), now)
+                : petRepository.updateOwned(id, principal.getId(), expectedVersion,
+                        petRequest.name(), petRequest.type(), petRequest.age(), now);
+        if (updated == 0) {
+            throw changedSinceLocked(id, current);
+        }
+        eventPublisher.publishEvent(PetChangedEvent.saved(current.ownerId(), id, petRequest.name()));
+        eventPublisher.publishEvent(PetStatsDelta.removed(List.of(current)).add(petRequest.type(), petRequest.age(), 1));
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+        return new PetResponse(id, petRequest.name(), petRequest.type(), petRequest.age(),
+                ownerUsername(current.ownerId(), principal), current.version() + 1);
+    }
 
-        if (pet.canBeManagedBy(user)) {
+    // Loads the entity so only the supplied fields are dirty; the flush writes just those
+    // columns with a version check in the WHERE clause
+    @Override
+    @Transactional
+    public PetResponse patchPet(Long id, PetPatchRequest patchRequest, Long expectedVersion, AuthenticatedUser principal) {
+        Pet pet = petRepository.findById(id).orElseThrow(() -> notFound(id));
+        if (!principal.isAdmin() && !pet.isOwnedBy(principal.getId())) {
             throw new UnauthorizedActionException("You are not authorized to update this pet");
         }
+        checkVersion(pet, expectedVersion);
+        PetType oldType = pet.getType();
+        int oldAge = pet.getAge();
 
-        pet.setName(petRequest.name());
-        pet.setAge(petRequest.age());
-        pet.setType(petRequest.type());
+        if (patchRequest.name() != null) {
+            pet.setName(patchRequest.name());
+        }
+        if (patchRequest.type() != null) {
+            pet.setType(patchRequest.type());
+        }
+        if (patchRequest.age() != null) {
+            pet.setAge(patchRequest.age());
+        }
+        petRepository.flush();
+        eventPublisher.publishEvent(PetChangedEvent.saved(pet.getOwner() == null ? null : pet.getOwner().getId(),
+                pet.getId(), pet.getName()));
+        if (oldType != pet.getType() || oldAge != pet.getAge()) {
+            eventPublisher.publishEvent(PetStatsDelta.changed(oldType, oldAge, pet.getType(), pet.getAge()));
+        }
+
+        return pet.isOwnedBy(principal.getId())
+                ? PetMapper.toResponse(pet, principal.getUsername())
+                : PetMapper.toResponse(pet);
+    }
 
-        return PetMapper.toResponse(petRepository.save(pet));
+    /**
+     * Locks and reads the pet before the DELETE rather than deleting in one statement:
+     * the owner's pet count and the statistics move by the owner, type and age it held.
+     */
+    @Override
+    @Transactional
+    public void deletePet(Long id, AuthenticatedUser principal) {
+        LockedPet removed = lockPet(id, principal, "You are not authorized to delete this pet");
+        if (petRepository.deleteByIds(List.of(id)) == 0) {
+            throw notFound(id);
+        }
+        lowerPetCounts(List.of(removed), principal);
+        // The locked row says whose pet it was, so an admin delete only drops that owner's caches
+        eventPublisher.publishEvent(PetChangedEvent.deleted(removed.ownerId(), id));
+        eventPublisher.publishEvent(PetStatsDelta.removed(List.of(removed)));
     }
 
+    /**
+     * Bulk operations run as a single UPDATE or DELETE. Ownership is part of the WHERE
+     * clause, so ids of other users' pets are skipped rather than rejected, and the
+     * affected count tells the caller how many pets actually changed. A bulk delete locks
+     * its rows first so the statistics and pet counts move by exactly the pets removed; a
+     * bulk update does not know the types and ages it replaced, so it leaves the
+     * statistics to a reconcile.
+     */
     @Override
     @Transactional
-    public void deletePet(Long id, String username) {
-        Pet pet = petRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Pet not found with id: " + id));
+    public BulkOperationResponse updatePets(PetBulkUpdateRequest request, AuthenticatedUser principal) {
+        Long ownerId = principal.isAdmin() ? null : principal.getId();
+        int updated = petRepository.bulkUpdate(ownerId, request);
+        eventPublisher.publishEvent(new PetChangedEvent(ownerId));
+        if (updated > 0 && (request.type() != null || request.age() != null)) {
+            eventPublisher.publishEvent(PetStatsDelta.unknown());
+        }
+        return new BulkOperationResponse(updated);
+    }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+    @Override
+    @Transactional
+    public BulkOperationResponse deletePets(List<Long> ids, AuthenticatedUser principal) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("ids must contain between 1 and " + MAX_BULK_IDS + " values");
+        }
+
+        // Only the locked pets are deleted, so the counts and statistics move by exactly those
+        Long ownerId = principal.isAdmin() ? null : principal.getId();
+        List<LockedPet> removed = petRepository.lockByIds(ids, ownerId);
+        List<Long> removedIds = removed.stream().map(LockedPet::id).toList();
+        int deleted = removed.isEmpty() ? 0
+                : ownerId == null ? petRepository.deleteByIds(removedIds) : petRepository.deleteOwnedByIds(removedIds, ownerId);
+        lowerPetCounts(removed, principal);
+        // One event per owner whose pets were removed; an ownerless pet can only be reported as any owner
+        removed.stream().map(LockedPet::ownerId).distinct()
+                .forEach(owner -> eventPublisher.publishEvent(new PetChangedEvent(owner)));
+        if (deleted > 0) {
+            eventPublisher.publishEvent(PetStatsDelta.removed(removed));
+        }
+        return new BulkOperationResponse(deleted);
+    }
+
+    @Override
+    @Transactional
+    public BulkOperationResponse transferPets(PetTransferRequest request, AuthenticatedUser principal) {
+        if (!principal.isAdmin()) {
+            throw new UnauthorizedActionException("You are not authorized to transfer pets");
+        }
+        Long fromId = findUserId(request.fromUsername());
+        Long toId = findUserId(request.toUsername());
+
+        int moved = petRepository.transferOwnership(fromId, userRepository.getReferenceById(toId), Instant.now());
+        if (moved > 0) {
+            addPetCount(fromId, request.fromUsername(), -moved);
+            addPetCount(toId, request.toUsername(), moved);
+        }
+        eventPublisher.publishEvent(new PetChangedEvent(fromId));
+        eventPublisher.publishEvent(new PetChangedEvent(toId));
+        return new BulkOperationResponse(moved);
+    }
+
+    // --- Helpers ---
+    // One increment statement on the owner's row. Creates run it before inserting, so the row is
+    // locked before the foreign key check on the insert and concurrent creates queue instead of deadlocking
+    private void addPetCount(Long ownerId, String username, long delta) {
+        userRepository.addPetCount(ownerId, delta);
+        eventPublisher.publishEvent(new OwnerPetCountChange(ownerId, username, delta));
+    }
+
+    // One decrement per owner of the deleted pets; the ranking knows the usernames of owners with pets
+    private void lowerPetCounts(List<LockedPet> removed, AuthenticatedUser principal) {
+        Map<Long, Long> removedPerOwner = removed.stream()
+                .map(LockedPet::ownerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        removedPerOwner.forEach((ownerId, count) -> addPetCount(ownerId,
+                ownerId.equals(principal.getId()) ? principal.getUsername() : null, -count));
+    }
 
-        if (pet.canBeManagedBy(user)) {
-            throw new UnauthorizedActionException("You are not authorized to delete this pet");
+    // Locks one pet for a delete or full update; 404 when it is missing, 403 when it is not the caller's
+    private LockedPet lockPet(Long id, AuthenticatedUser principal, String forbiddenMessage) {
+        LockedPet pet = petRepository.lockByIds(List.of(id), null).stream().findFirst()
+                .orElseThrow(() -> notFound(id));
+        if (!principal.isAdmin() && !principal.getId().equals(pet.ownerId())) {
+            throw new UnauthorizedActionException(forbiddenMessage);
         }
+        return pet;
+    }
+
+    // The locked row should not change before the write that follows; if it did, say whether it went or moved on
+    private RuntimeException changedSinceLocked(Long id, LockedPet locked) {
+        return petRepository.existsById(id)
+                ? new PreconditionFailedException("Pet " + id + " was modified concurrently after version " + locked.version())
+                : notFound(id);
+    }
 
-        petRepository.deleteById(id);
+    private String ownerUsername(Long ownerId, AuthenticatedUser principal) {
+        if (ownerId == null) {
+            return null;
+        }
+        if (ownerId.equals(principal.getId())) {
+            return principal.getUsername();
+        }
+        return identityCache.findById(ownerId).map(UserIdentityCache.Identity::username).orElse(null);
+    }
+
+    // Called only after an ownership-scoped statement matched nothing, to tell 404 from 403
+    private RuntimeException missingOrForbidden(Long id, String message) {
+        return petRepository.existsById(id) ? new UnauthorizedActionException(message) : notFound(id);
+    }
+
+    private static void checkVersion(Pet pet, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(pet.getVersion())) {
+            throw versionConflict(pet.getId(), pet.getVersion());
+        }
+    }
+
+    private static PreconditionFailedException versionConflict(Long id, Long currentVersion) {
+        return new PreconditionFailedException("Pet " + id + " was modified concurrently; current version is " + currentVersion);
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("Pet not found with id: " + id);
+    }
+
+    private Long findUserId(String username) {
+        return identityCache.find(username)
+                .map(UserIdentityCache.Identity::id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
     }
 }
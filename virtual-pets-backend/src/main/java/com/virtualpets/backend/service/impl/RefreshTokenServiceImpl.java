@@ -0,0 +1,114 @@
+package com.virtualpets.backend.service.impl;
+
+import com.virtualpets.backend.exception.InvalidCredentialsException;
+import com.virtualpets.backend.model.RefreshToken;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.RefreshTokenRepository;
+import com.virtualpets.backend.service.RefreshTokenService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Duration REFRESH_TOKEN_TTL = Duration.ofDays(14);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    @Override
+    @Transactional
+    public IssuedToken createRefreshToken(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one in the same family. A token that was
+     * already exchanged or revoked is treated as stolen and revokes the whole family;
+     * that revocation must survive the exception, hence noRollbackFor.
+     */
+    @Override
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public RotatedToken rotate(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
+
+        Instant now = Instant.now();
+        if (current.getUsedAt() != null || current.isRevoked()
+                || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new InvalidCredentialsException("Refresh token reuse detected");
+        }
+
+        if (current.isExpired(now)) {
+            throw new InvalidCredentialsException("Refresh token expired");
+        }
+
+        User user = current.getUser();
+        return new RotatedToken(user, issue(user, current.getFamilyId()));
+    }
+
+    @Override
+    @Transactional
+    public void revokeFamily(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeByUserId(userId);
+    }
+
+    // Expired tokens can no longer be exchanged and revoked ones belong to a dead family
+    @Scheduled(fixedDelayString = "${auth.refresh.sweep-interval-ms:3600000}",
+            initialDelayString = "${auth.refresh.sweep-interval-ms:3600000}")
+    @Transactional
+    public void sweep() {
+        refreshTokenRepository.deleteExpiredOrRevoked(Instant.now());
+    }
+
+    // --- Helpers ---
+    private IssuedToken issue(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .user(user)
+                .expiresAt(Instant.now().plus(REFRESH_TOKEN_TTL))
+                .build();
+        refreshTokenRepository.save(refreshToken);
+
+        return new IssuedToken(rawToken, familyId);
+    }
+
+    // Tokens are 256 random bits, so a fast unsalted digest is enough to keep them unusable at rest
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
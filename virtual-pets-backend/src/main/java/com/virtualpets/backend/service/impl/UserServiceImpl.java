@@ -1,65 +1,98 @@
 package com.virtualpets.backend.service.impl;
 
+import com.virtualpets.backend.config.CacheConfig;
+import com.virtualpets.backend.dto.response.TopOwnerResponse;
 import com.virtualpets.backend.dto.response.UserResponse;
 import com.virtualpets.backend.exception.UnauthorizedActionException;
 import com.virtualpets.backend.exception.ResourceNotFoundException;
 import com.virtualpets.backend.mapper.UserMapper;
 import com.virtualpets.backend.model.User;
 import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetOwnerRanking;
 import com.virtualpets.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.security.core.GrantedAuthority;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    public static final int MAX_USER_PAGE_SIZE = 100;
+    public static final int MAX_TOP_OWNERS = 100;
+
     private final UserRepository userRepository;
+    private final PetOwnerRanking ownerRanking;
 
+    // The condition runs before the cache lookup, so callers failing the access check never see a cached page
     @Override
-    @Cacheable(value = "allUsers")
-    public List<UserResponse> getAllUsers(Collection<? extends GrantedAuthority> roles) {
-        if (!isAdmin(roles)) {
+    @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfig.USER_PAGES, key = "#page + ':' + #size", condition = "#caller.admin")
+    public Page<UserResponse> getAllUsers(AuthenticatedUser caller, int page, int size) {
+        if (!caller.isAdmin()) {
             throw new UnauthorizedActionException("Only admins can access all users");
         }
+        if (page < 0 || size < 1 || size > MAX_USER_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_USER_PAGE_SIZE);
+        }
 
-        return userRepository.findAll().stream()
+        // Page the ids first, then load those users with their roles in one join instead of a select per user
+        Page<Long> ids = userRepository.findIds(PageRequest.of(page, size, Sort.by("id")));
+        Map<Long, User> users = userRepository.findWithRolesByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<UserResponse> content = ids.getContent().stream()
+                .map(users::get)
                 .map(UserMapper::toResponse)
-                .collect(Collectors.toList());
+                .toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
     }
 
     @Override
-    @Cacheable(value = "userByUsername", key = "#requestedUsername")
-    public UserResponse getUserByUsername(String requestedUsername, String callerUsername, Collection<? extends GrantedAuthority> roles) {
-        User user = userRepository.findByUsername(requestedUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        if (!canAccessUser(requestedUsername, callerUsername, roles)) {
+    @Cacheable(value = CacheConfig.USER_BY_USERNAME, key = "#requestedUsername",
+            condition = "#caller.admin or #caller.username == #requestedUsername")
+    public UserResponse getUserByUsername(String requestedUsername, AuthenticatedUser caller) {
+        if (!canAccessUser(requestedUsername, caller)) {
             throw new UnauthorizedActionException("You are not allowed to view this user");
         }
 
+        User user = userRepository.findByUsername(requestedUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         return UserMapper.toResponse(user);
     }
 
-    // Optional: invalidate cache if a user is updated/deleted
-    @CacheEvict(value = {"allUsers", "userByUsername"}, allEntries = true)
-    public void evictAllCaches() {
-        // This can be called after user create/update/delete operations
+    // Served from the in-memory ranking, which is moved by every pet write
+    @Override
+    public List<TopOwnerResponse> getTopOwners(AuthenticatedUser caller, int limit) {
+        if (!caller.isAdmin()) {
+            throw new UnauthorizedActionException("Only admins can rank users");
+        }
+        if (limit < 1 || limit > MAX_TOP_OWNERS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_TOP_OWNERS);
+        }
+        return ownerRanking.top(limit);
     }
 
-    // --- Helpers ---
-    private boolean isAdmin(Collection<? extends GrantedAuthority> roles) {
-        return roles.stream().anyMatch(r -> r.getAuthority().equals("ROLE_ADMIN"));
+    // Called by IdentityChangeListener after any user or role write
+    @Override
+    @CacheEvict(value = {CacheConfig.USER_PAGES, CacheConfig.USER_BY_USERNAME}, allEntries = true)
+    public void evictAllCaches() {
     }
 
-    private boolean canAccessUser(String requestedUsername, String callerUsername, Collection<? extends GrantedAuthority> roles) {
-        return requestedUsername.equals(callerUsername) || isAdmin(roles);
+    // --- Helpers ---
+    private boolean canAccessUser(String requestedUsername, AuthenticatedUser caller) {
+        return requestedUsername.equals(caller.getUsername()) || caller.isAdmin();
     }
 }
@@ -1,10 +1,15 @@
 package com.virtualpets.backend.util;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.virtualpets.backend.exception.JwtAuthenticationException;
+import com.virtualpets.backend.model.RoleName;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.security.VerifiedTokenCache;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -14,31 +19,97 @@ public class JwtUtil {
 
     private static final String SECRET = "your-secret-key";
     private static final long EXPIRATION_MS = 1000 * 60 * 60; // 1 hour
+    private static final int TOKEN_CACHE_SIZE = 10_000;
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_MASK_CLAIM = "rm";
+    private static final String SESSION_CLAIM = "sid";
+    private static final String LEGACY_ROLES_CLAIM = "roles";
 
     private final Algorithm algorithm = Algorithm.HMAC256(SECRET);
+    private final JWTVerifier verifier = JWT.require(algorithm).build();
+    private final VerifiedTokenCache tokenCache = new VerifiedTokenCache(TOKEN_CACHE_SIZE);
 
-    public String generateToken(String username, Set<String> roles) {
-        return JWT.create()
+    public String generateToken(Long userId, String username, Set<String> roles) {
+        return generateToken(userId, username, roles, null);
+    }
+
+    // The session id is the refresh-token family of the login, so a logout can end just that login
+    public String generateToken(Long userId, String username, Set<String> roles, String sessionId) {
+        JWTCreator.Builder builder = JWT.create();
+        if (sessionId != null) {
+            builder.withClaim(SESSION_CLAIM, sessionId);
+        }
+        return builder
                 .withSubject(username)
-                .withClaim("roles", new ArrayList<>(roles))
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim(USER_ID_CLAIM, userId)
+                .withClaim(ROLE_MASK_CLAIM, RoleName.maskOf(roles))
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_MS))
                 .sign(algorithm);
     }
 
+    /**
+     * Verifies the token once and returns its principal. Tokens seen before are
+     * served from the cache without repeating the signature check or claim parsing.
+     */
+    public AuthenticatedUser authenticate(String token) {
+        String key = VerifiedTokenCache.key(token);
+        AuthenticatedUser cached = tokenCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        DecodedJWT jwt = verifyToken(token);
+        Long userId = userId(jwt);
+        if (userId == null) {
+            // Tokens issued before the id claim existed cannot be used for ownership checks
+            throw new JwtAuthenticationException("Invalid or expired JWT token");
+        }
+        AuthenticatedUser principal = new AuthenticatedUser(userId, jwt.getSubject(), roleMask(jwt), jwt.getId());
+
+        if (jwt.getExpiresAt() != null) {
+            tokenCache.put(key, principal, jwt.getExpiresAt().getTime());
+        }
+        return principal;
+    }
+
     public DecodedJWT verifyToken(String token) {
         try {
-            return JWT.require(algorithm).build().verify(token);
+            return verifier.verify(token);
         } catch (JWTVerificationException ex) {
             throw new JwtAuthenticationException("Invalid or expired JWT token");
         }
     }
 
+    // Null for tokens issued before the id claim existed
+    public static Long userId(DecodedJWT jwt) {
+        return jwt.getClaim(USER_ID_CLAIM).asLong();
+    }
+
+    // The refresh-token family of the login; null for tokens issued before the claim existed
+    public static String sessionId(DecodedJWT jwt) {
+        return jwt.getClaim(SESSION_CLAIM).asString();
+    }
+
     public String getUsername(String token) {
-        return verifyToken(token).getSubject();
+        return authenticate(token).getUsername();
     }
 
     public List<String> getRoles(String token) {
-        return verifyToken(token).getClaim("roles").asList(String.class);
+        return authenticate(token).getRoles();
+    }
+
+    public VerifiedTokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    // Tokens issued before the bitmask claim carry a list of role names instead
+    private static int roleMask(DecodedJWT jwt) {
+        Integer mask = jwt.getClaim(ROLE_MASK_CLAIM).asInt();
+        if (mask != null) {
+            return mask;
+        }
+        return RoleName.maskOf(jwt.getClaim(LEGACY_ROLES_CLAIM).asList(String.class));
     }
 }
@@ -0,0 +1,36 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update), written to run on MySQL 8
+-- and on H2 in MySQL mode. Existing databases are baselined at this version, so it holds
+-- only the tables every such database already has; later tables get their own versions.
+
+CREATE TABLE users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE roles (
+    id   BIGINT       NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE pets (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(255) NOT NULL,
+    type     VARCHAR(32)  NOT NULL,
+    age      INT          NOT NULL,
+    owner_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_pets_owner FOREIGN KEY (owner_id) REFERENCES users (id)
+);
@@ -0,0 +1,12 @@
+-- One index per listing shape: (owner_id, sort key, id) for a user's own pets and
+-- (sort key, id) for the admin view. The trailing id matches the keyset tiebreaker, so
+-- page, slice and cursor queries read the index in order instead of sorting.
+
+CREATE INDEX idx_pets_owner_id   ON pets (owner_id, id);
+CREATE INDEX idx_pets_owner_name ON pets (owner_id, name, id);
+CREATE INDEX idx_pets_owner_type ON pets (owner_id, type, id);
+CREATE INDEX idx_pets_owner_age  ON pets (owner_id, age, id);
+
+CREATE INDEX idx_pets_name ON pets (name, id);
+CREATE INDEX idx_pets_type ON pets (type, id);
+CREATE INDEX idx_pets_age  ON pets (age, id);
@@ -0,0 +1,12 @@
+-- Pet ids move from AUTO_INCREMENT to a pooled table generator so inserts can be batched.
+-- The counter starts past every existing id plus one allocation block, which keeps new ids
+-- clear of old rows whichever pooled optimizer flavour hands them out.
+
+CREATE TABLE id_generators (
+    name     VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (name)
+);
+
+INSERT INTO id_generators (name, next_val)
+SELECT 'pets', COALESCE(MAX(id), 0) + 51 FROM pets;
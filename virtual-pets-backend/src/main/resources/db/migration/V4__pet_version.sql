@@ -0,0 +1,2 @@
+-- Optimistic locking: every write to a pet bumps its version, which is exposed as the ETag
+ALTER TABLE pets ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
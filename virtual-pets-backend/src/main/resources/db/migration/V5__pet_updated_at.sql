@@ -0,0 +1,5 @@
+-- Last change per pet; max(updated_at) and the row count per owner make up the listing ETag
+ALTER TABLE pets ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+-- Covers both halves of the aggregate, so computing an owner's tag never reads pet rows
+CREATE INDEX idx_pets_owner_updated_at ON pets (owner_id, updated_at);
@@ -0,0 +1,5 @@
+-- Filtered listings: a type set with an age range becomes one (type, age) range per type,
+-- within the owner's pets or across all of them. Name prefixes use the V2 name indexes.
+
+CREATE INDEX idx_pets_owner_type_age ON pets (owner_id, type, age, id);
+CREATE INDEX idx_pets_type_age       ON pets (type, age, id);
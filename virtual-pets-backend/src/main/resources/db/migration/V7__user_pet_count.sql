@@ -0,0 +1,5 @@
+-- Pets owned by each user. Pet writes keep it with increment statements in their own
+-- transaction, so user responses and the top-owners ranking never count pets
+ALTER TABLE users ADD COLUMN pet_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE users SET pet_count = (SELECT COUNT(*) FROM pets WHERE pets.owner_id = users.id);
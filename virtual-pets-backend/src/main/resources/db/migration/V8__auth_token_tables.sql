@@ -0,0 +1,27 @@
+-- Refresh token families and the access token revocation list. Databases baselined at V1
+-- may predate these tables or may already have them from ddl-auto=update, so both are
+-- created only when missing; ddl-auto never created the expiry index, so it always is.
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    token_hash VARCHAR(64) NOT NULL,
+    family_id  VARCHAR(36) NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used_at    DATETIME(6),
+    revoked    BOOLEAN     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    jti        VARCHAR(36) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_revoked_tokens_jti UNIQUE (jti)
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -3,23 +3,34 @@ package com.virtualpets.virtual_pets_backend;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.virtualpets.backend.VirtualPetsBackendApplication;
 import com.virtualpets.backend.dto.request.LoginRequest;
+import com.virtualpets.backend.dto.request.RefreshRequest;
 import com.virtualpets.backend.dto.request.RegisterRequest;
+import com.virtualpets.backend.dto.response.AuthResponse;
 import com.virtualpets.backend.dto.response.ErrorResponse;
 import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RefreshTokenRepository;
 import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.service.impl.RefreshTokenServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest(classes = VirtualPetsBackendApplication.class)
+// Rate limits have their own test; these flows log in more often than the per-IP budget allows
+@SpringBootTest(classes = VirtualPetsBackendApplication.class, properties = "ratelimit.enabled=false")
 @AutoConfigureMockMvc
 class AuthControllerTest {
 
@@ -31,6 +42,10 @@ class AuthControllerTest {
     private UserRepository userRepository;
     @Autowired
     private PetRepository petRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private RefreshTokenServiceImpl refreshTokenService;
 
     @BeforeEach
     void setUp() {
@@ -42,7 +57,7 @@ class AuthControllerTest {
     void register_and_login_success() throws Exception {
         RegisterRequest registerRequest = new RegisterRequest("alice", "password");
 
-        mockMvc.perform(post("/auth/register")
+        performAsync(post("/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registerRequest)))
                 .andExpect(status().isCreated())
@@ -52,7 +67,7 @@ class AuthControllerTest {
 
         LoginRequest loginRequest = new LoginRequest("alice", "password");
 
-        mockMvc.perform(post("/auth/login")
+        performAsync(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
@@ -74,4 +89,158 @@ class AuthControllerTest {
         ErrorResponse errorResponse = objectMapper.readValue(response, ErrorResponse.class);
         assertThat(errorResponse.details()).containsKey("username");
     }
+
+    @Test
+    void refresh_shouldRotateToken_andRejectReuse() throws Exception {
+        String body = performAsync(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RegisterRequest("carol", "password"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn().getResponse().getContentAsString();
+        String firstRefresh = objectMapper.readValue(body, AuthResponse.class).refreshToken();
+
+        body = mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(firstRefresh))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("carol"))
+                .andExpect(jsonPath("$.token").exists())
+                .andReturn().getResponse().getContentAsString();
+        String secondRefresh = objectMapper.readValue(body, AuthResponse.class).refreshToken();
+        assertThat(secondRefresh).isNotEqualTo(firstRefresh);
+
+        // Replaying the first token revokes the whole family, including the rotated one
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(firstRefresh))))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(secondRefresh))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void login_withWrongPassword_shouldReturnUnauthorized() throws Exception {
+        performAsync(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RegisterRequest("dave", "password"))))
+                .andExpect(status().isCreated());
+
+        performAsync(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("dave", "wrong-password"))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout_shouldRevokeAccessAndRefreshTokens() throws Exception {
+        String body = performAsync(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RegisterRequest("erin", "password"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        AuthResponse registered = objectMapper.readValue(body, AuthResponse.class);
+        String bearer = "Bearer " + registered.token();
+
+        mockMvc.perform(get("/pets").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/logout").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/pets").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(registered.refreshToken()))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout_shouldKeepTheUsersOtherLogins_untilLogoutAll() throws Exception {
+        performAsync(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RegisterRequest("gina", "password"))))
+                .andExpect(status().isCreated());
+        AuthResponse laptop = login("gina");
+        AuthResponse phone = login("gina");
+        AuthResponse tablet = login("gina");
+
+        mockMvc.perform(post("/auth/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + laptop.token()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(laptop.refreshToken()))))
+                .andExpect(status().isUnauthorized());
+        String body = mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(phone.refreshToken()))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String phoneRefresh = objectMapper.readValue(body, AuthResponse.class).refreshToken();
+
+        mockMvc.perform(post("/auth/logout-all").header(HttpHeaders.AUTHORIZATION, "Bearer " + tablet.token()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(phoneRefresh))))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(tablet.refreshToken()))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void sweep_shouldPurgeRevokedRefreshTokensOnly() throws Exception {
+        String body = performAsync(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RegisterRequest("frank", "password"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        performAsync(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("frank", "password"))))
+                .andExpect(status().isOk());
+        // Logging out the first session revokes only its refresh family; a new login adds a third
+        mockMvc.perform(post("/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + objectMapper.readValue(body, AuthResponse.class).token()))
+                .andExpect(status().isNoContent());
+        performAsync(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("frank", "password"))))
+                .andExpect(status().isOk());
+
+        refreshTokenService.sweep();
+
+        assertThat(refreshTokenRepository.findAll()).hasSize(2).allMatch(token -> !token.isRevoked());
+    }
+
+    @Test
+    void logout_withoutToken_shouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(post("/auth/logout"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private AuthResponse login(String username) throws Exception {
+        String body = performAsync(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest(username, "password"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, AuthResponse.class);
+    }
+
+    // Login and register complete on the hashing pool, so the result arrives through an async dispatch
+    private ResultActions performAsync(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
 }
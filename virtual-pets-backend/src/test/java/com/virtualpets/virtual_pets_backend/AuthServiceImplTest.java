@@ -1,16 +1,22 @@
 package com.virtualpets.virtual_pets_backend;
 
 import com.virtualpets.backend.dto.request.LoginRequest;
+import com.virtualpets.backend.dto.request.RefreshRequest;
 import com.virtualpets.backend.dto.request.RegisterRequest;
 import com.virtualpets.backend.dto.response.AuthResponse;
 import com.virtualpets.backend.exception.InvalidCredentialsException;
 import com.virtualpets.backend.exception.UserAlreadyExistsException;
 import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.RoleName;
 import com.virtualpets.backend.model.User;
-import com.virtualpets.backend.repository.RoleRepository;
 import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.PasswordHashingExecutor;
+import com.virtualpets.backend.security.TokenRevocationList;
+import com.virtualpets.backend.service.RefreshTokenService;
+import com.virtualpets.backend.service.RoleRegistry;
 import com.virtualpets.backend.service.impl.AuthServiceImpl;
 import com.virtualpets.backend.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -18,6 +24,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,28 +38,41 @@ class AuthServiceImplTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private TokenRevocationList revocationList;
 
     private final JwtUtil jwtUtil = new JwtUtil();
+    private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 10);
     private Role role;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        authService = new AuthServiceImpl(userRepository, roleRepository, passwordEncoder, jwtUtil);
+        authService = new AuthServiceImpl(userRepository, roleRegistry, passwordEncoder, jwtUtil,
+                refreshTokenService, hashingExecutor, revocationList);
         role = new Role(1L, "ROLE_USER");
     }
 
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        hashingExecutor.destroy();
+    }
+
     @Test
     void register_success() {
         RegisterRequest request = new RegisterRequest("alice", "pass");
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
-        when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(role));
+        when(userRepository.existsByUsername("alice")).thenReturn(false);
+        when(roleRegistry.require(RoleName.ROLE_USER)).thenReturn(role);
         when(passwordEncoder.encode("pass")).thenReturn("encodedPass");
+        when(refreshTokenService.createRefreshToken(any(User.class)))
+                .thenReturn(new RefreshTokenService.IssuedToken("refresh-1", "family-1"));
 
-        AuthResponse response = authService.register(request);
+        AuthResponse response = authService.register(request).join();
 
         assertNotNull(response.token());
         assertEquals("alice", response.username());
@@ -61,9 +82,9 @@ class AuthServiceImplTest {
 
     @Test
     void register_existingUsername_throws() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(new User()));
+        when(userRepository.existsByUsername("alice")).thenReturn(true);
         RegisterRequest request = new RegisterRequest("alice", "pass");
-        assertThrows(UserAlreadyExistsException.class, () -> authService.register(request));
+        assertFailsWith(UserAlreadyExistsException.class, authService.register(request));
     }
 
     @Test
@@ -76,15 +97,40 @@ class AuthServiceImplTest {
                 .build();
         when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("pass", "encodedPass")).thenReturn(true);
+        when(refreshTokenService.createRefreshToken(user))
+                .thenReturn(new RefreshTokenService.IssuedToken("refresh-1", "family-1"));
 
-        AuthResponse response = authService.login(request);
+        AuthResponse response = authService.login(request).join();
 
         assertNotNull(response.token());
+        assertEquals("refresh-1", response.refreshToken());
+        assertEquals("family-1", JwtUtil.sessionId(jwtUtil.verifyToken(response.token())));
         assertEquals("alice", response.username());
         assertTrue(response.roles().contains("ROLE_USER"));
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void login_withOutdatedHash_reencodesPassword() {
+        LoginRequest request = new LoginRequest("alice", "pass");
+        User user = User.builder()
+                .username("alice")
+                .password("legacyHash")
+                .roles(Set.of(role))
+                .build();
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("pass", "legacyHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("legacyHash")).thenReturn(true);
+        when(passwordEncoder.encode("pass")).thenReturn("{bcrypt}newHash");
+        when(refreshTokenService.createRefreshToken(user))
+                .thenReturn(new RefreshTokenService.IssuedToken("refresh-1", "family-1"));
+
+        authService.login(request).join();
+
+        assertEquals("{bcrypt}newHash", user.getPassword());
+        verify(userRepository).save(user);
+    }
+
     @Test
     void login_invalidPassword_throws() {
         LoginRequest request = new LoginRequest("alice", "wrong");
@@ -95,13 +141,59 @@ class AuthServiceImplTest {
                 .build();
         when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("wrong", "encodedPass")).thenReturn(false);
-        assertThrows(InvalidCredentialsException.class, () -> authService.login(request));
+        assertFailsWith(InvalidCredentialsException.class, authService.login(request));
     }
 
     @Test
     void login_userNotFound_throws() {
         LoginRequest request = new LoginRequest("bob", "pass");
         when(userRepository.findByUsername("bob")).thenReturn(Optional.empty());
-        assertThrows(InvalidCredentialsException.class, () -> authService.login(request));
+        assertFailsWith(InvalidCredentialsException.class, authService.login(request));
+    }
+
+    @Test
+    void refresh_success_doesNotCheckPassword() {
+        User user = User.builder()
+                .id(7L)
+                .username("alice")
+                .password("encodedPass")
+                .roles(Set.of(role))
+                .build();
+        when(refreshTokenService.rotate("refresh-1"))
+                .thenReturn(new RefreshTokenService.RotatedToken(user, new RefreshTokenService.IssuedToken("refresh-2", "family-1")));
+
+        AuthResponse response = authService.refresh(new RefreshRequest("refresh-1"));
+
+        assertEquals("alice", response.username());
+        assertEquals("refresh-2", response.refreshToken());
+        assertEquals(7L, jwtUtil.authenticate(response.token()).getId());
+        verifyNoInteractions(passwordEncoder, userRepository);
+    }
+
+    @Test
+    void logout_revokesTokenIdUntilExpiryAndItsRefreshFamily() {
+        String token = jwtUtil.generateToken(7L, "alice", Set.of("ROLE_USER"), "family-1");
+        var decoded = jwtUtil.verifyToken(token);
+
+        authService.logout(token);
+
+        verify(revocationList).revoke(decoded.getId(), decoded.getExpiresAt().toInstant());
+        verify(refreshTokenService).revokeFamily("family-1");
+        verify(refreshTokenService, never()).revokeAll(any());
+    }
+
+    @Test
+    void logoutEverywhere_revokesEveryRefreshFamilyOfTheUser() {
+        String token = jwtUtil.generateToken(7L, "alice", Set.of("ROLE_USER"), "family-1");
+
+        authService.logoutEverywhere(token);
+
+        verify(refreshTokenService).revokeAll(7L);
+        verify(refreshTokenService, never()).revokeFamily(any());
+    }
+
+    private static void assertFailsWith(Class<? extends Throwable> expected, CompletableFuture<?> future) {
+        CompletionException ex = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(expected, ex.getCause());
     }
 }
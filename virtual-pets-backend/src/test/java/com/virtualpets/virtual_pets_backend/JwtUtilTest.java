@@ -1,10 +1,19 @@
 package com.virtualpets.virtual_pets_backend;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.virtualpets.backend.exception.JwtAuthenticationException;
+import com.virtualpets.backend.model.RoleName;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.security.VerifiedTokenCache;
 import com.virtualpets.backend.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -21,7 +30,7 @@ class JwtUtilTest {
 
     @Test
     void generateToken_shouldReturnTokenWithCorrectUsernameAndRoles() {
-        String token = jwtUtil.generateToken("admin", Set.of("ROLE_ADMIN", "ROLE_USER"));
+        String token = jwtUtil.generateToken(1L, "admin", Set.of("ROLE_ADMIN", "ROLE_USER"));
 
         String username = jwtUtil.getUsername(token);
         List<String> roles = jwtUtil.getRoles(token);
@@ -33,13 +42,13 @@ class JwtUtilTest {
 
     @Test
     void verifyToken_shouldReturnDecodedJWT() {
-        String token = jwtUtil.generateToken("alice", Set.of("ROLE_USER"));
+        String token = jwtUtil.generateToken(2L, "alice", Set.of("ROLE_USER"));
 
         var decodedJWT = jwtUtil.verifyToken(token);
 
         assertEquals("alice", decodedJWT.getSubject(), "Decoded JWT should have correct subject");
-        assertTrue(decodedJWT.getClaim("roles").asList(String.class).contains("ROLE_USER"),
-                "Decoded JWT should contain ROLE_USER in roles claim");
+        assertEquals(RoleName.ROLE_USER.mask(), decodedJWT.getClaim("rm").asInt(),
+                "Decoded JWT should carry ROLE_USER in the role mask claim");
     }
 
     @Test
@@ -55,7 +64,7 @@ class JwtUtilTest {
 
     @Test
     void getRoles_shouldReturnCorrectRoles() {
-        String token = jwtUtil.generateToken("bob", Set.of("ROLE_USER", "ROLE_ADMIN"));
+        String token = jwtUtil.generateToken(3L, "bob", Set.of("ROLE_USER", "ROLE_ADMIN"));
 
         List<String> roles = jwtUtil.getRoles(token);
 
@@ -66,10 +75,96 @@ class JwtUtilTest {
 
     @Test
     void getUsername_shouldReturnCorrectUsername() {
-        String token = jwtUtil.generateToken("carol", Set.of("ROLE_USER"));
+        String token = jwtUtil.generateToken(4L, "carol", Set.of("ROLE_USER"));
 
         String username = jwtUtil.getUsername(token);
 
         assertEquals("carol", username, "Username extracted should match the token owner");
     }
+
+    @Test
+    void authenticate_shouldServeRepeatedTokenFromCache() {
+        String token = jwtUtil.generateToken(5L, "dave", Set.of("ROLE_USER"));
+
+        AuthenticatedUser first = jwtUtil.authenticate(token);
+        AuthenticatedUser second = jwtUtil.authenticate(token);
+
+        assertSame(first, second, "Second lookup should return the cached principal");
+        assertEquals("dave", second.getName());
+        assertEquals(5L, second.getId());
+        assertEquals(1, jwtUtil.getTokenCache().misses());
+        assertEquals(1, jwtUtil.getTokenCache().hits());
+    }
+
+    @Test
+    void authenticate_shouldExposeAdminFlagFromRoles() {
+        String token = jwtUtil.generateToken(1L, "admin", Set.of("ROLE_ADMIN", "ROLE_USER"));
+
+        AuthenticatedUser principal = jwtUtil.authenticate(token);
+
+        assertTrue(principal.isAdmin());
+        assertEquals(1L, principal.getId());
+    }
+
+    @Test
+    void authenticate_legacyRolesClaim_shouldMapToMask() {
+        String token = JWT.create()
+                .withSubject("legacy")
+                .withClaim("uid", 8L)
+                .withClaim("roles", List.of("ROLE_USER", "ROLE_UNKNOWN"))
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC256("your-secret-key"));
+
+        AuthenticatedUser principal = jwtUtil.authenticate(token);
+
+        assertEquals(RoleName.ROLE_USER.mask(), principal.getRoleMask());
+        assertEquals(List.of("ROLE_USER"), principal.getRoles());
+        assertFalse(principal.isAdmin());
+    }
+
+    @Test
+    void roleName_masksShouldRoundTrip() {
+        int mask = RoleName.maskOf(Set.of("ROLE_ADMIN", "ROLE_USER"));
+
+        assertTrue(RoleName.ROLE_ADMIN.isIn(mask));
+        assertTrue(RoleName.ROLE_USER.isIn(mask));
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), RoleName.namesOf(mask));
+        assertSame(RoleName.authoritiesOf(mask), RoleName.authoritiesOf(mask));
+        assertEquals(0, RoleName.maskOf(null));
+    }
+
+    @Test
+    void authenticate_invalidToken_shouldNotBeCached() {
+        assertThrows(JwtAuthenticationException.class, () -> jwtUtil.authenticate("invalid.token.value"));
+
+        assertEquals(0, jwtUtil.getTokenCache().size());
+    }
+
+    @Test
+    void tokenCache_shouldDropExpiredEntries() {
+        Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, Clock.fixed(now, ZoneOffset.UTC));
+        AuthenticatedUser principal = new AuthenticatedUser(6L, "erin", List.of("ROLE_USER"));
+
+        cache.put(VerifiedTokenCache.key("live"), principal, now.toEpochMilli() + 1_000);
+        cache.put(VerifiedTokenCache.key("expired"), principal, now.toEpochMilli());
+
+        assertSame(principal, cache.get(VerifiedTokenCache.key("live")));
+        assertNull(cache.get(VerifiedTokenCache.key("expired")));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void tokenCache_shouldStayWithinMaxEntries() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(20);
+        AuthenticatedUser principal = new AuthenticatedUser(7L, "frank", List.of("ROLE_USER"));
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(VerifiedTokenCache.key("token-" + i), principal, expiresAt);
+        }
+
+        assertTrue(cache.size() <= 20, "Cache should never grow past its bound");
+        assertTrue(cache.evictions() > 0, "Overflow should be reported as evictions");
+    }
 }
@@ -0,0 +1,166 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.LoginRequest;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.util.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mixed-load benchmark: login workers hammer /auth/login while reader workers poll
+ * GET /pets. Reports login throughput, 503 rejections and pet-read latency so the
+ * effect of the isolated hashing pool on the pet endpoints is visible.
+ * Run with: mvn test -Pbenchmark -Dtest=LoginThroughputBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = VirtualPetsBackendApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.show-sql=false", "ratelimit.enabled=false",
+                "auth.hashing.pool-size=2", "auth.hashing.queue-capacity=16"})
+class LoginThroughputBenchmark {
+
+    private static final int USERS = 20;
+    private static final int LOGIN_WORKERS = 16;
+    private static final int READ_WORKERS = 8;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASURE = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newFixedThreadPool(LOGIN_WORKERS + READ_WORKERS))
+            .build();
+
+    @Test
+    void loginThroughputUnderMixedLoad() throws Exception {
+        petRepository.deleteAll();
+        userRepository.deleteAll();
+        Role userRole = roleRepository.findByName("ROLE_USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_USER")));
+
+        String encoded = passwordEncoder.encode("password");
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("bench" + i);
+            user.setPassword(encoded);
+            user.setRoles(Set.of(userRole));
+            users.add(userRepository.save(user));
+        }
+        User reader = users.getFirst();
+        String bearer = "Bearer " + jwtUtil.generateToken(reader.getId(), reader.getUsername(), Set.of("ROLE_USER"));
+
+        run(bearer, WARMUP, new Stats());
+        Stats stats = new Stats();
+        run(bearer, MEASURE, stats);
+
+        double seconds = MEASURE.toMillis() / 1000.0;
+        List<Long> latencies = new ArrayList<>(stats.readLatenciesMicros);
+        Collections.sort(latencies);
+        System.out.printf("%n=== Login throughput under mixed load (%ds) ===%n", MEASURE.toSeconds());
+        System.out.printf("logins ok      : %8.1f /s%n", stats.loginOk.sum() / seconds);
+        System.out.printf("logins 503     : %8.1f /s%n", stats.loginRejected.sum() / seconds);
+        System.out.printf("pet reads      : %8.1f /s%n", stats.readOk.sum() / seconds);
+        System.out.printf("pet read p50   : %8d us%n", percentile(latencies, 0.50));
+        System.out.printf("pet read p99   : %8d us%n", percentile(latencies, 0.99));
+
+        assertThat(stats.loginOk.sum()).isPositive();
+        assertThat(stats.readOk.sum()).isPositive();
+    }
+
+    private void run(String bearer, Duration duration, Stats stats) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(LOGIN_WORKERS + READ_WORKERS);
+
+        for (int w = 0; w < LOGIN_WORKERS; w++) {
+            int worker = w;
+            workers.submit(() -> {
+                int i = worker;
+                while (System.nanoTime() < deadline) {
+                    String body = objectMapper.writeValueAsString(new LoginRequest("bench" + (i++ % USERS), "password"));
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    (status == 200 ? stats.loginOk : stats.loginRejected).increment();
+                }
+                return null;
+            });
+        }
+
+        for (int w = 0; w < READ_WORKERS; w++) {
+            workers.submit(() -> {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/pets"))
+                        .header("Authorization", bearer)
+                        .GET()
+                        .build();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status == 200) {
+                        stats.readOk.increment();
+                        stats.readLatenciesMicros.add((System.nanoTime() - start) / 1_000);
+                    }
+                }
+                return null;
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 30, TimeUnit.SECONDS);
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(p * sorted.size())));
+    }
+
+    private static final class Stats {
+        final LongAdder loginOk = new LongAdder();
+        final LongAdder loginRejected = new LongAdder();
+        final LongAdder readOk = new LongAdder();
+        final List<Long> readLatenciesMicros = Collections.synchronizedList(new ArrayList<>());
+    }
+}
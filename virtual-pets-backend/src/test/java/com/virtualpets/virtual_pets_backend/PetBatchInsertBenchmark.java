@@ -0,0 +1,102 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.response.PetBatchResponse;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts the same number of pets through N createPet calls and through one createPets
+ * batch, reporting per-item latency, throughput and the JDBC statements each path needs.
+ * Run with: mvn test -Pbenchmark -Dtest=PetBatchInsertBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = VirtualPetsBackendApplication.class,
+        properties = {"spring.jpa.show-sql=false", "ratelimit.enabled=false",
+                "spring.jpa.properties.hibernate.generate_statistics=true"})
+class PetBatchInsertBenchmark {
+
+    private static final int PETS = 500;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private PetService petService;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchVersusSingleInserts() {
+        petRepository.deleteAll();
+        User owner = userRepository.findByUsername("batch-bench").orElseGet(() -> {
+            User user = new User();
+            user.setUsername("batch-bench");
+            user.setPassword("unused");
+            return userRepository.save(user);
+        });
+        AuthenticatedUser principal = new AuthenticatedUser(owner.getId(), owner.getUsername(), List.of("ROLE_USER"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<PetRequest> requests = new ArrayList<>();
+        for (int i = 0; i < PETS; i++) {
+            requests.add(new PetRequest("Pet" + i, PetType.values()[i % PetType.values().length], i % 20));
+        }
+
+        // Warm-up
+        requests.subList(0, 50).forEach(request -> petService.createPet(request, principal));
+        petService.createPets(requests.subList(0, 50), principal);
+
+        long singleNanos = 0;
+        long singleStatements = 0;
+        long batchNanos = 0;
+        long batchStatements = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            statistics.clear();
+            long start = System.nanoTime();
+            for (PetRequest request : requests) {
+                petService.createPet(request, principal);
+            }
+            singleNanos += System.nanoTime() - start;
+            singleStatements += statistics.getPrepareStatementCount();
+
+            statistics.clear();
+            start = System.nanoTime();
+            PetBatchResponse response = petService.createPets(requests, principal);
+            batchNanos += System.nanoTime() - start;
+            batchStatements += statistics.getPrepareStatementCount();
+            assertThat(response.created()).isEqualTo(PETS);
+        }
+
+        long items = (long) PETS * ROUNDS;
+        System.out.printf("%n=== Pet inserts, %d pets x %d rounds ===%n", PETS, ROUNDS);
+        report("single createPet", singleNanos, singleStatements, items);
+        report("createPets batch", batchNanos, batchStatements, items);
+
+        assertThat(batchStatements).isLessThan(singleStatements);
+    }
+
+    private static void report(String label, long nanos, long statements, long items) {
+        System.out.printf("%-18s: %8.1f us/pet  %10.0f pets/s  %7.3f statements/pet%n",
+                label, nanos / 1_000.0 / items, items / (nanos / 1_000_000_000.0), (double) statements / items);
+    }
+}
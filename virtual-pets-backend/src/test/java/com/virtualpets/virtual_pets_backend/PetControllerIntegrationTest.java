@@ -2,7 +2,11 @@ package com.virtualpets.virtual_pets_backend;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetBatchRequest;
+import com.virtualpets.backend.dto.request.PetBulkUpdateRequest;
 import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.request.PetTransferRequest;
+import com.virtualpets.backend.dto.response.PetResponse;
 import com.virtualpets.backend.model.Pet;
 import com.virtualpets.backend.model.Pet.PetType;
 import com.virtualpets.backend.model.Role;
@@ -10,17 +14,32 @@ import com.virtualpets.backend.model.User;
 import com.virtualpets.backend.repository.PetRepository;
 import com.virtualpets.backend.repository.RoleRepository;
 import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.service.PetChangedEvent;
+import com.virtualpets.backend.service.PetOwnerRanking;
+import com.virtualpets.backend.service.PetPageCache;
+import com.virtualpets.backend.service.PetStatsCounters;
 import com.virtualpets.backend.util.JwtUtil;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -43,6 +62,16 @@ public class PetControllerIntegrationTest {
     private RoleRepository roleRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PetStatsCounters statsCounters;
+    @Autowired
+    private PetOwnerRanking ownerRanking;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PetPageCache pageCache;
 
     private String userToken;
     private String anotherUserToken;
@@ -76,9 +105,9 @@ public class PetControllerIntegrationTest {
         admin.setRoles(Set.of(userRole, adminRole));
         userRepository.save(admin);
 
-        userToken = "Bearer " + jwtUtil.generateToken(user.getUsername(), Set.of(userRole.getName()));
-        anotherUserToken = "Bearer " + jwtUtil.generateToken(anotherUser.getUsername(), Set.of(userRole.getName()));
-        adminToken = "Bearer " + jwtUtil.generateToken(admin.getUsername(), Set.of(userRole.getName(), adminRole.getName()));
+        userToken = "Bearer " + jwtUtil.generateToken(user.getId(), user.getUsername(), Set.of(userRole.getName()));
+        anotherUserToken = "Bearer " + jwtUtil.generateToken(anotherUser.getId(), anotherUser.getUsername(), Set.of(userRole.getName()));
+        adminToken = "Bearer " + jwtUtil.generateToken(admin.getId(), admin.getUsername(), Set.of(userRole.getName(), adminRole.getName()));
     }
 
     @BeforeEach
@@ -92,6 +121,10 @@ public class PetControllerIntegrationTest {
         pet.setOwner(owner);
         pet = petRepository.save(pet);
         petId = pet.getId();
+        // Repository writes bypass the service, so drop cached listings and recount owners explicitly
+        eventPublisher.publishEvent(PetChangedEvent.anyOwner());
+        jdbcTemplate.update("update users set pet_count = (select count(*) from pets where pets.owner_id = users.id)");
+        ownerRanking.reload();
     }
 
     @Test
@@ -106,6 +139,40 @@ public class PetControllerIntegrationTest {
                 .andExpect(jsonPath("$.ownerUsername").value("bob"));
     }
 
+    @Test
+    void createPets_shouldCreateAllInRequestOrder() throws Exception {
+        PetBatchRequest batch = new PetBatchRequest(List.of(
+                new PetRequest("Rex", PetType.DOG, 4),
+                new PetRequest("Nemo", PetType.ORNAMENTAL_FISH, 1),
+                new PetRequest("Hazel", PetType.FERRET, 2)));
+
+        mockMvc.perform(post("/pets/batch")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.pets[*].name").value(contains("Rex", "Nemo", "Hazel")))
+                .andExpect(jsonPath("$.pets[0].id").isNumber())
+                .andExpect(jsonPath("$.pets[2].ownerUsername").value("bob"));
+    }
+
+    @Test
+    void createPets_shouldRejectWholeBatch_whenOneItemIsInvalid() throws Exception {
+        PetBatchRequest batch = new PetBatchRequest(List.of(
+                new PetRequest("Rex", PetType.DOG, 4),
+                new PetRequest("", PetType.CAT, 1)));
+
+        mockMvc.perform(post("/pets/batch")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details['pets[1].name']").exists());
+
+        assertThat(petRepository.count()).isEqualTo(1);
+    }
+
     // ---- UPDATED FOR PAGINATION ----
     @Test
     void getPets_shouldReturnUsersOwnPets_whenUserAuthenticated() throws Exception {
@@ -144,6 +211,83 @@ public class PetControllerIntegrationTest {
                 .andExpect(jsonPath("$.number").value(0));
     }
 
+    @Test
+    void getPetSlice_shouldReturnHasNextWithoutTotals() throws Exception {
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", adminToken)
+                        .param("mode", "slice")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Buddy"))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.approximateTotal").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("mode", "slice")
+                        .param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.approximateTotal").value(1));
+    }
+
+    @Test
+    void getPetsByCursor_shouldWalkOwnPetsInSortOrder() throws Exception {
+        User owner = userRepository.findByUsername("bob").orElseThrow();
+        for (String name : new String[]{"Coco", "Ace", "Bella"}) {
+            Pet pet = new Pet();
+            pet.setName(name);
+            pet.setAge(1);
+            pet.setType(PetType.CAT);
+            pet.setOwner(owner);
+            petRepository.save(pet);
+        }
+
+        String body = mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("cursor", "")
+                        .param("size", "3")
+                        .param("sortBy", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Ace", "Bella", "Buddy")))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("cursor", nextCursor)
+                        .param("size", "3")
+                        .param("sortBy", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Coco")))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // A cursor is only valid for the ordering that produced it
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("cursor", nextCursor)
+                        .param("sortBy", "age"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPets_shouldRejectNonWhitelistedSortField() throws Exception {
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("sortBy", "owner.password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPetsByCursor_shouldRejectUnknownSortField() throws Exception {
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("cursor", "")
+                        .param("sortBy", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updatePet_shouldSucceed_whenOwnerAuthenticated() throws Exception {
         PetRequest updatedPet = new PetRequest("New Name", PetType.RABBIT, 4);
@@ -176,6 +320,138 @@ public class PetControllerIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void updatePet_shouldReturn412_whenIfMatchIsStale() throws Exception {
+        mockMvc.perform(get("/pets/" + petId)
+                        .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""));
+
+        PetRequest first = new PetRequest("First", PetType.DOG, 4);
+        mockMvc.perform(put("/pets/" + petId)
+                        .header("Authorization", userToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(first)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        PetRequest second = new PetRequest("Second", PetType.DOG, 5);
+        mockMvc.perform(put("/pets/" + petId)
+                        .header("Authorization", userToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(second)))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(petRepository.findById(petId).orElseThrow().getName()).isEqualTo("First");
+    }
+
+    @Test
+    void patchPet_shouldUpdateOnlySuppliedFields() throws Exception {
+        mockMvc.perform(patch("/pets/" + petId)
+                        .header("Authorization", userToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 8}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.name").value("Buddy"))
+                .andExpect(jsonPath("$.type").value("DOG"))
+                .andExpect(jsonPath("$.age").value(8));
+
+        mockMvc.perform(patch("/pets/" + petId)
+                        .header("Authorization", userToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Late\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchPet_shouldReturn403_whenNotOwner() throws Exception {
+        mockMvc.perform(patch("/pets/" + petId)
+                        .header("Authorization", anotherUserToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 8}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getPetById_shouldReturn304_whenETagMatches() throws Exception {
+        mockMvc.perform(get("/pets/" + petId)
+                        .header("Authorization", userToken)
+                        .header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/pets/" + petId)
+                        .header("Authorization", anotherUserToken)
+                        .header("If-None-Match", "\"0\""))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getPets_shouldReturn304_untilOwnersPetsChange() throws Exception {
+        String etag = mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/pets/" + petId)
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 5}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].age").value(5));
+    }
+
+    @Test
+    void updatePet_byAdmin_shouldLeaveOtherOwnersCachedListingsAlone() throws Exception {
+        String etag = mockMvc.perform(get("/pets")
+                        .header("Authorization", anotherUserToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        long hits = pageCache.hits();
+
+        mockMvc.perform(put("/pets/" + petId)
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetRequest("Rex", PetType.DOG, 4))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", anotherUserToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", anotherUserToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+        assertThat(pageCache.hits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void getPets_shouldExposeTheETagToTheFrontendOrigin() throws Exception {
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .header("Origin", "http://localhost:3000"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Expose-Headers", "ETag, Retry-After"));
+    }
+
     @Test
     void deletePet_shouldSucceed_whenOwnerAuthenticated() throws Exception {
         mockMvc.perform(delete("/pets/" + petId)
@@ -203,4 +479,516 @@ public class PetControllerIntegrationTest {
                         .header("Authorization", userToken))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void getAllPets_shouldApplyTypeAgeAndNameFilters() throws Exception {
+        User bob = userRepository.findByUsername("bob").orElseThrow();
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        petRepository.save(Pet.builder().name("Buster").type(PetType.DOG).age(7).owner(bob).build());
+        petRepository.save(Pet.builder().name("Bubbles").type(PetType.ORNAMENTAL_FISH).age(1).owner(bob).build());
+        petRepository.save(Pet.builder().name("Bugsy").type(PetType.DOG).age(2).owner(alice).build());
+        eventPublisher.publishEvent(PetChangedEvent.anyOwner());
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("type", "DOG")
+                        .param("maxAge", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Buddy")))
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", adminToken)
+                        .param("type", "DOG", "ORNAMENTAL_FISH")
+                        .param("namePrefix", "Bu")
+                        .param("minAge", "2")
+                        .param("sortBy", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Buddy", "Bugsy", "Buster")));
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("mode", "slice")
+                        .param("nameContains", "bb")
+                        .param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Bubbles")))
+                .andExpect(jsonPath("$.approximateTotal").doesNotExist());
+    }
+
+    @Test
+    void getPetsByCursor_shouldKeepFilterAcrossPages() throws Exception {
+        User bob = userRepository.findByUsername("bob").orElseThrow();
+        for (int age = 1; age <= 4; age++) {
+            petRepository.save(Pet.builder().name("Cat" + age).type(PetType.CAT).age(age).owner(bob).build());
+        }
+        eventPublisher.publishEvent(PetChangedEvent.anyOwner());
+
+        String body = mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("cursor", "")
+                        .param("size", "2")
+                        .param("type", "CAT")
+                        .param("minAge", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Cat2", "Cat3")))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("cursor", objectMapper.readTree(body).get("nextCursor").asText())
+                        .param("size", "2")
+                        .param("type", "CAT")
+                        .param("minAge", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Cat4")))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getAllPets_shouldMatchLikeWildcardsLiterally() throws Exception {
+        User bob = userRepository.findByUsername("bob").orElseThrow();
+        petRepository.save(Pet.builder().name("100% Dog").type(PetType.DOG).age(1).owner(bob).build());
+        eventPublisher.publishEvent(PetChangedEvent.anyOwner());
+
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("nameContains", "%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("100% Dog")));
+    }
+
+    @Test
+    void getAllPets_shouldReturn400_whenAgeRangeIsInverted() throws Exception {
+        mockMvc.perform(get("/pets")
+                        .header("Authorization", userToken)
+                        .param("minAge", "5")
+                        .param("maxAge", "2"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details.ageRangeValid").exists());
+    }
+
+    @Test
+    void suggestPets_shouldFollowCreateUpdateAndDelete() throws Exception {
+        mockMvc.perform(get("/pets/suggest").header("Authorization", userToken).param("prefix", "bu"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name").value(contains("Buddy")));
+
+        String created = mockMvc.perform(post("/pets")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetRequest("Bubba", PetType.CAT, 1))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long bubbaId = objectMapper.readTree(created).get("id").asLong();
+        mockMvc.perform(put("/pets/" + petId)
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetRequest("Rex", PetType.DOG, 3))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/pets/suggest").header("Authorization", userToken).param("prefix", "Bu"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name").value(contains("Bubba")));
+        mockMvc.perform(get("/pets/suggest").header("Authorization", anotherUserToken).param("prefix", "Bu"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(delete("/pets/" + bubbaId).header("Authorization", adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/pets/suggest").header("Authorization", adminToken).param("prefix", "r"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name").value(contains("Rex")));
+        mockMvc.perform(get("/pets/suggest").header("Authorization", userToken).param("prefix", "Bu"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void suggestPets_shouldReturn400_whenLimitTooLarge() throws Exception {
+        mockMvc.perform(get("/pets/suggest")
+                        .header("Authorization", userToken)
+                        .param("prefix", "b")
+                        .param("limit", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void petStats_shouldFollowCreateUpdateAndDelete() throws Exception {
+        // The fixture pet was saved through the repository, which the counters do not see
+        statsCounters.reconcile();
+        String created = mockMvc.perform(post("/pets")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetRequest("Tom", PetType.CAT, 12))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(put("/pets/" + petId)
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetRequest("Buddy", PetType.DOG, 5))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/pets/" + objectMapper.readTree(created).get("id").asLong())
+                        .header("Authorization", adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/pets/stats").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.byType.DOG").value(1))
+                .andExpect(jsonPath("$.byType.CAT").value(0))
+                .andExpect(jsonPath("$.byAge['3-4']").value(0))
+                .andExpect(jsonPath("$.byAge['5-7']").value(1));
+    }
+
+    @Test
+    void petStats_shouldReturn403_forRegularUser() throws Exception {
+        mockMvc.perform(get("/pets/stats").header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void petStats_shouldReturn403_onceAnAdminIsDemoted() throws Exception {
+        Role userRole = roleRepository.findByName("ROLE_USER").orElseThrow();
+        Role adminRole = roleRepository.findByName("ROLE_ADMIN").orElseThrow();
+        User demoted = userRepository.findByUsername("demoted").orElseGet(() -> {
+            User created = new User();
+            created.setUsername("demoted");
+            created.setPassword(passwordEncoder.encode("password"));
+            return created;
+        });
+        demoted.setRoles(Set.of(userRole, adminRole));
+        demoted = userRepository.save(demoted);
+        // The token keeps claiming ROLE_ADMIN until it expires
+        String token = "Bearer " + jwtUtil.generateToken(demoted.getId(), demoted.getUsername(),
+                Set.of(userRole.getName(), adminRole.getName()));
+        mockMvc.perform(get("/pets/stats").header("Authorization", token))
+                .andExpect(status().isOk());
+
+        demoted.setRoles(Set.of(userRole));
+        userRepository.save(demoted);
+
+        mockMvc.perform(get("/pets/stats").header("Authorization", token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void petCounts_shouldFollowCreateDeleteAndTransfer() throws Exception {
+        // Cached before the writes, so a stale entry would show the old count
+        mockMvc.perform(get("/users/alice").header("Authorization", anotherUserToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.petCount").value(0));
+        mockMvc.perform(post("/pets/batch")
+                        .header("Authorization", anotherUserToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetBatchRequest(List.of(
+                                new PetRequest("Kitty", PetType.CAT, 2), new PetRequest("Tom", PetType.CAT, 4))))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/pets")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetRequest("Rex", PetType.DOG, 1))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(delete("/pets/" + petId).header("Authorization", adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/alice").header("Authorization", anotherUserToken))
+                .andExpect(jsonPath("$.petCount").value(2));
+        mockMvc.perform(get("/users/top-owners").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].username").value(contains("alice", "bob")))
+                .andExpect(jsonPath("$[*].petCount").value(contains(2, 1)));
+
+        mockMvc.perform(post("/pets/transfer")
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetTransferRequest("alice", "bob"))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/top-owners").header("Authorization", adminToken).param("limit", "5"))
+                .andExpect(jsonPath("$[*].username").value(contains("bob")))
+                .andExpect(jsonPath("$[0].petCount").value(3));
+        assertThat(userRepository.findByUsername("alice").orElseThrow().getPetCount()).isZero();
+    }
+
+    @Test
+    void topOwners_shouldReturn403_forRegularUser() throws Exception {
+        mockMvc.perform(get("/users/top-owners").header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void updatePets_shouldOnlyChangeCallersPets() throws Exception {
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        Pet alicesPet = petRepository.save(Pet.builder().name("Kitty").type(PetType.CAT).age(2).owner(alice).build());
+        PetBulkUpdateRequest request = new PetBulkUpdateRequest(List.of(petId, alicesPet.getId()), null, null, null, null, null, 9);
+
+        mockMvc.perform(patch("/pets")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+
+        assertThat(petRepository.findById(petId).orElseThrow().getAge()).isEqualTo(9);
+        assertThat(petRepository.findById(alicesPet.getId()).orElseThrow().getAge()).isEqualTo(2);
+    }
+
+    @Test
+    void updatePets_shouldReturn400_whenNoSelectionGiven() throws Exception {
+        mockMvc.perform(patch("/pets")
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updatePets_shouldReturn400_whenNameIsBlankOrAgeRangeIsInverted() throws Exception {
+        mockMvc.perform(patch("/pets")
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filterType\": \"DOG\", \"name\": \"   \"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/pets")
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filterMinAge\": 5, \"filterMaxAge\": 2, \"age\": 1}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(petRepository.findById(petId).orElseThrow().getName()).isEqualTo("Buddy");
+    }
+
+    @Test
+    void deletePets_shouldSkipPetsOfOtherUsers() throws Exception {
+        mockMvc.perform(delete("/pets")
+                        .param("ids", petId.toString(), "999")
+                        .header("Authorization", anotherUserToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(0));
+
+        mockMvc.perform(delete("/pets")
+                        .param("ids", petId.toString(), "999")
+                        .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+
+        assertThat(petRepository.existsById(petId)).isFalse();
+    }
+
+    @Test
+    void transferPets_shouldMoveAllPets_whenAdmin() throws Exception {
+        mockMvc.perform(post("/pets/transfer")
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetTransferRequest("bob", "alice"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+
+        assertThat(petRepository.findById(petId).orElseThrow().isOwnedBy(
+                userRepository.findByUsername("alice").orElseThrow().getId())).isTrue();
+    }
+
+    @Test
+    void exportPets_shouldStreamNdjsonWithOwnerUsernames() throws Exception {
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        petRepository.save(Pet.builder().name("Kitty, \"the\" cat").type(PetType.CAT).age(2).owner(alice).build());
+
+        String body = mockMvc.perform(get("/pets/export").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(0)).get("ownerUsername").asText()).isEqualTo("bob");
+        assertThat(objectMapper.readTree(lines.get(1)).get("ownerUsername").asText()).isEqualTo("alice");
+    }
+
+    @Test
+    void exportPets_shouldWriteQuotedCsv() throws Exception {
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        Pet kitty = petRepository.save(Pet.builder().name("Kitty, \"the\" cat").type(PetType.CAT).age(2).owner(alice).build());
+
+        String body = mockMvc.perform(get("/pets/export").param("format", "csv").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).isEqualTo("id,name,type,age,ownerUsername,version\r\n"
+                + petId + ",Buddy,DOG,3,bob,0\r\n"
+                + kitty.getId() + ",\"Kitty, \"\"the\"\" cat\",CAT,2,alice,0\r\n");
+    }
+
+    @Test
+    void exportPets_shouldGuardFormulaLikeCsvCellsAndImportThemBack() throws Exception {
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        petRepository.deleteAll();
+        petRepository.save(Pet.builder().name("=HYPERLINK(\"x\")").type(PetType.CAT).age(2).owner(alice).build());
+        petRepository.save(Pet.builder().name("'@Rex").type(PetType.DOG).age(3).owner(alice).build());
+        petRepository.save(Pet.builder().name("Tom-Tom").type(PetType.DOG).age(4).owner(alice).build());
+
+        String body = mockMvc.perform(get("/pets/export").param("format", "csv").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines().skip(1).map(line -> line.split(",", 3)[1]).toList())
+                .containsExactly("\"'=HYPERLINK(\"\"x\"\")\"", "\"''@Rex\"", "Tom-Tom");
+
+        petRepository.deleteAll();
+        mockMvc.perform(post("/pets/import")
+                        .param("format", "csv")
+                        .header("Authorization", anotherUserToken)
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(3));
+        assertThat(petRepository.findResponsesByOwnerId(alice.getId(), PageRequest.of(0, 10)).map(PetResponse::name))
+                .containsExactlyInAnyOrder("=HYPERLINK(\"x\")", "'@Rex", "Tom-Tom");
+    }
+
+    @Test
+    void exportPets_shouldGzipWhenAsked() throws Exception {
+        byte[] body = mockMvc.perform(get("/pets/export").param("gzip", "true").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"pets.ndjson.gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(objectMapper.readTree(json.strip()).get("name").asText()).isEqualTo("Buddy");
+        }
+    }
+
+    @Test
+    void importPets_shouldInsertValidLinesAndReportTheRest() throws Exception {
+        String body = String.join("\n",
+                "{\"name\":\"Rex\",\"type\":\"DOG\",\"age\":4}",
+                "{\"name\":\"Tom\",\"type\":\"cat\",\"age\":2,\"id\":77,\"ownerUsername\":\"alice\"}",
+                "",
+                "{\"name\":\"Bad\",\"type\":\"DOG\",\"age\":-1}",
+                "{\"name\":\"Odd\",\"type\":\"DRAGON\",\"age\":1}",
+                "not json");
+
+        mockMvc.perform(post("/pets/import")
+                        .header("Authorization", userToken)
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.rejections[*].line", contains(4, 5, 6)))
+                .andExpect(jsonPath("$.rejections[0].reason").value("age: Age must be at least 0"));
+
+        User bob = userRepository.findByUsername("bob").orElseThrow();
+        assertThat(petRepository.findResponsesByOwnerId(bob.getId(), PageRequest.of(0, 10)).map(PetResponse::name))
+                .containsExactlyInAnyOrder("Buddy", "Rex", "Tom");
+    }
+
+    @Test
+    void importPets_shouldReadExportedCsv() throws Exception {
+        String body = "id,name,type,age,ownerUsername,version\r\n"
+                + "1,\"Kitty, \"\"the\"\" cat\",CAT,2,alice,0\r\n"
+                + "2,,DOG,1,alice,0\r\n";
+
+        mockMvc.perform(post("/pets/import")
+                        .param("format", "csv")
+                        .header("Authorization", anotherUserToken)
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejections[0].line").value(3))
+                .andExpect(jsonPath("$.rejections[0].reason")
+                        .value("name: Name is mandatory; name: Name must be between 1 and 255 characters"));
+
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        assertThat(petRepository.findResponsesByOwnerId(alice.getId(), PageRequest.of(0, 10)).map(PetResponse::name))
+                .containsExactly("Kitty, \"the\" cat");
+    }
+
+    @Test
+    void importPets_shouldRejectRowsWithoutAnAge() throws Exception {
+        mockMvc.perform(post("/pets/import")
+                        .header("Authorization", anotherUserToken)
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"Rex\",\"type\":\"DOG\"}\n{\"name\":\"Tom\",\"type\":\"CAT\",\"age\":0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejections[0].line").value(1))
+                .andExpect(jsonPath("$.rejections[0].reason").value("Unreadable line: age is missing"));
+
+        mockMvc.perform(post("/pets/import")
+                        .param("format", "csv")
+                        .header("Authorization", anotherUserToken)
+                        .contentType("text/csv")
+                        .content("name,type,age\r\nKitty,CAT, \r\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(0))
+                .andExpect(jsonPath("$.rejections[0].line").value(2))
+                .andExpect(jsonPath("$.rejections[0].reason").value("Unreadable line: age is missing"));
+    }
+
+    @Test
+    void importPets_shouldRejectOnlyTheRowWithAnOversizedName() throws Exception {
+        String body = String.join("\n",
+                "{\"name\":\"Rex\",\"type\":\"DOG\",\"age\":1}",
+                "{\"name\":\"" + "N".repeat(256) + "\",\"type\":\"DOG\",\"age\":1}",
+                "{\"name\":\"Tom\",\"type\":\"CAT\",\"age\":2}");
+
+        mockMvc.perform(post("/pets/import")
+                        .header("Authorization", anotherUserToken)
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0].line").value(2))
+                .andExpect(jsonPath("$.rejections[0].reason").value("name: Name must be between 1 and 255 characters"));
+
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        assertThat(petRepository.findResponsesByOwnerId(alice.getId(), PageRequest.of(0, 10)).map(PetResponse::name))
+                .containsExactlyInAnyOrder("Rex", "Tom");
+    }
+
+    @Test
+    void importPets_shouldAcceptGzipBody() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write("{\"name\":\"Zipped\",\"type\":\"RABBIT\",\"age\":1}\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(post("/pets/import")
+                        .header("Authorization", userToken)
+                        .header("Content-Encoding", "gzip")
+                        .contentType("application/x-ndjson")
+                        .content(compressed.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1));
+    }
+
+    @Test
+    void importPets_shouldReturn400_whenCsvHeaderLacksColumns() throws Exception {
+        mockMvc.perform(post("/pets/import")
+                        .param("format", "csv")
+                        .header("Authorization", userToken)
+                        .contentType("text/csv")
+                        .content("name,age\nRex,3\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportPets_shouldReturn403_whenNotAdmin() throws Exception {
+        mockMvc.perform(get("/pets/export").header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void transferPets_shouldReturn403_whenNotAdmin() throws Exception {
+        mockMvc.perform(post("/pets/transfer")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetTransferRequest("alice", "bob"))))
+                .andExpect(status().isForbidden());
+    }
 }
@@ -3,22 +3,29 @@ package com.virtualpets.virtual_pets_backend;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.virtualpets.backend.VirtualPetsBackendApplication;
 import com.virtualpets.backend.controller.PetController;
+import com.virtualpets.backend.dto.request.PetFilter;
 import com.virtualpets.backend.dto.request.PetRequest;
 import com.virtualpets.backend.dto.response.PetResponse;
 import com.virtualpets.backend.dto.response.ErrorResponse;
 import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetExporter;
+import com.virtualpets.backend.service.PetImporter;
+import com.virtualpets.backend.service.PetPageCache;
 import com.virtualpets.backend.service.PetService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -26,14 +33,16 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PetController.class)
 @ContextConfiguration(classes = VirtualPetsBackendApplication.class)
+@Import(PetPageCache.class)
 public class PetControllerUnitTest {
 
     @Autowired
@@ -43,22 +52,28 @@ public class PetControllerUnitTest {
 
     @MockBean
     private PetService petService;
+    @MockBean
+    private PetExporter petExporter;
+    @MockBean
+    private PetImporter petImporter;
 
     private PetResponse petResponse;
     private PetRequest petRequest;
+    private AuthenticatedUser principal;
 
     @BeforeEach
     void setUp() {
-        petResponse = new PetResponse(1L, "Buddy", PetType.DOG, 3, "bob");
+        principal = new AuthenticatedUser(1L, "bob", List.of("ROLE_USER"));
+        petResponse = new PetResponse(1L, "Buddy", PetType.DOG, 3, "bob", 0L);
         petRequest = new PetRequest("New Name", PetType.CAT, 4);
     }
 
     @Test
-    @WithMockUser
     void createPet_shouldReturnCreated_whenValidRequest() throws Exception {
-        when(petService.createPet(any(PetRequest.class), anyString())).thenReturn(petResponse);
+        when(petService.createPet(any(PetRequest.class), eq(principal))).thenReturn(petResponse);
 
         mockMvc.perform(post("/pets")
+                        .with(asPrincipal())
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(petRequest)))
@@ -69,15 +84,15 @@ public class PetControllerUnitTest {
     }
 
     @Test
-    @WithMockUser(username = "bob", roles = "USER")
     void getPets_shouldReturnListOfPets_whenAuthenticated() throws Exception {
         Pageable pageable = PageRequest.of(0, 10);
         Page<PetResponse> page = new PageImpl<>(List.of(petResponse));
 
         // Mock the new method signature with Pageable
-        when(petService.getAllPets(anyString(), any(Pageable.class))).thenReturn(page);
+        when(petService.getAllPets(eq(principal), eq(PetFilter.NONE), any(Pageable.class))).thenReturn(page);
 
         mockMvc.perform(get("/pets")
+                        .with(asPrincipal())
                         .with(csrf()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].name").value("Buddy"))
@@ -86,11 +101,11 @@ public class PetControllerUnitTest {
     }
 
     @Test
-    @WithMockUser
     void createPet_withInvalidType_shouldReturnValidationError() throws Exception {
         PetRequest invalidRequest = new PetRequest("Invalid", null, 2); // PetType null
 
         String response = mockMvc.perform(post("/pets")
+                        .with(asPrincipal())
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidRequest)))
@@ -100,4 +115,8 @@ public class PetControllerUnitTest {
         ErrorResponse errorResponse = objectMapper.readValue(response, ErrorResponse.class);
         assertThat(errorResponse.details()).containsKey("type");
     }
+
+    private RequestPostProcessor asPrincipal() {
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
 }
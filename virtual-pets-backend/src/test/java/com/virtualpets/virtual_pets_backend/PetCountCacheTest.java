@@ -0,0 +1,60 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.service.PetChangedEvent;
+import com.virtualpets.backend.service.PetCountCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PetCountCacheTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void listingTagMovesOnlyWithTheOwnersChangesAndNeverQueries() {
+        PetCountCache cache = new PetCountCache(petRepository, 30_000, now::get);
+        String bob = cache.ownerListingTag(1L);
+        String alice = cache.ownerListingTag(2L);
+
+        cache.onPetChanged(PetChangedEvent.saved(1L, 10L, "Rex"));
+        now.addAndGet(60_000);
+
+        assertThat(cache.ownerListingTag(1L)).isNotEqualTo(bob);
+        assertThat(cache.ownerListingTag(2L)).isEqualTo(alice);
+        verifyNoInteractions(petRepository);
+    }
+
+    @Test
+    void changeWithAnUnknownOwnerMovesEveryTag() {
+        PetCountCache cache = new PetCountCache(petRepository, 30_000, now::get);
+        cache.onPetChanged(new PetChangedEvent(1L));
+        String bob = cache.ownerListingTag(1L);
+        String alice = cache.ownerListingTag(2L);
+
+        cache.onPetChanged(PetChangedEvent.anyOwner());
+        // Bob's version starts over, but in a new epoch, so his old tag cannot match again
+        cache.onPetChanged(new PetChangedEvent(1L));
+
+        assertThat(cache.ownerListingTag(1L)).isNotEqualTo(bob);
+        assertThat(cache.ownerListingTag(2L)).isNotEqualTo(alice);
+    }
+
+    @Test
+    void tagsFromAnEarlierStartDoNotMatch() {
+        String before = new PetCountCache(petRepository, 30_000, now::get).ownerListingTag(1L);
+        now.addAndGet(5_000);
+
+        assertThat(new PetCountCache(petRepository, 30_000, now::get).ownerListingTag(1L)).isNotEqualTo(before);
+    }
+}
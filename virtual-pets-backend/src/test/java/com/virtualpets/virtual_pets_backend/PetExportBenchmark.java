@@ -0,0 +1,156 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetService;
+import com.virtualpets.backend.util.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams GET /pets/export over HTTP for growing generated datasets and reports rows/s,
+ * MB/s, then repeats each export while forcing a GC every 50 ms to find the most heap it
+ * retains above the idle baseline. Retained heap should stay roughly the same as the
+ * table grows, since nothing is buffered per row. The H2 URL enables lazy query
+ * execution so the test database streams too.
+ * Run with: mvn test -Pbenchmark -Dtest=PetExportBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = VirtualPetsBackendApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.show-sql=false", "ratelimit.enabled=false",
+                "spring.datasource.url=jdbc:h2:mem:exportbench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                        + "DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=TRUE"})
+class PetExportBenchmark {
+
+    private static final int[] DATASET_SIZES = {50_000, 200_000};
+    private static final int BATCH = 500;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private PetService petService;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void exportThroughputAndHeap() throws Exception {
+        petRepository.deleteAll();
+        Role userRole = roleRepository.findByName("ROLE_USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_USER")));
+        User owner = userRepository.findByUsername("export-bench").orElseGet(() -> {
+            User user = new User();
+            user.setUsername("export-bench");
+            user.setPassword("unused");
+            user.setRoles(Set.of(userRole));
+            return userRepository.save(user);
+        });
+        AuthenticatedUser principal = new AuthenticatedUser(owner.getId(), owner.getUsername(), List.of("ROLE_USER"));
+        String bearer = "Bearer " + jwtUtil.generateToken(owner.getId(), owner.getUsername(), Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+        List<PetRequest> batch = new ArrayList<>();
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(new PetRequest("Pet" + i, PetType.values()[i % PetType.values().length], i % 20));
+        }
+
+        // Warm-up
+        petService.createPets(batch, principal);
+        export(bearer, "format=ndjson", false);
+
+        long rows = petRepository.count();
+        for (int size : DATASET_SIZES) {
+            while (rows < size) {
+                petService.createPets(batch, principal);
+                rows += BATCH;
+            }
+            System.out.printf("%n=== Pet export, %d rows ===%n", rows);
+            for (String query : List.of("format=ndjson", "format=csv", "format=ndjson&gzip=true")) {
+                Result result = export(bearer, query, false);
+                Result retained = export(bearer, query, true);
+                System.out.printf("%-24s: %10.0f rows/s  %7.1f MB/s  %8.1f MB out  retained heap %6.1f MB%n",
+                        query, rows / result.seconds(), result.bytes / 1e6 / result.seconds(),
+                        result.bytes / 1e6, retained.retainedHeap / 1e6);
+                assertThat(result.bytes).isEqualTo(retained.bytes);
+            }
+        }
+    }
+
+    private Result export(String bearer, String query, boolean measureHeap) throws IOException, InterruptedException {
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicBoolean running = new AtomicBoolean(measureHeap);
+        AtomicLong peak = new AtomicLong(baseline);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                System.gc();
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/pets/export?" + query))
+                .header("Authorization", bearer)
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        long bytes = 0;
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[64 * 1024];
+            for (int n; (n = body.read(buffer)) != -1; ) {
+                bytes += n;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        running.set(false);
+        sampler.join();
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        return new Result(bytes, nanos, Math.max(0, peak.get() - baseline));
+    }
+
+    private record Result(long bytes, long nanos, long retainedHeap) {
+        double seconds() {
+            return nanos / 1_000_000_000.0;
+        }
+    }
+}
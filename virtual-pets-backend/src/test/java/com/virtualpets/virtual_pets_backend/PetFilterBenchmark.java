@@ -0,0 +1,222 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetFilter;
+import com.virtualpets.backend.dto.request.PetSortField;
+import com.virtualpets.backend.dto.response.CursorPageResponse;
+import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fills a file-backed H2 database with 1M pets spread over 100 owners (kept in target/
+ * and reused by later runs), then compares two ways of getting the first 20 pets that
+ * match a filter: the filtered GET /pets query, and the client-side alternative of
+ * walking unfiltered cursor pages of 100 and filtering them locally. Both sides are
+ * serialized to JSON so the bytes a client would download are counted too.
+ * Run with: mvn test -Pbenchmark -Dtest=PetFilterBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = VirtualPetsBackendApplication.class,
+        properties = {"spring.jpa.show-sql=false", "ratelimit.enabled=false",
+                "spring.datasource.url=jdbc:h2:file:./target/filterbench/pets;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                        + "DB_CLOSE_ON_EXIT=FALSE"})
+class PetFilterBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int OWNERS = 100;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int CLIENT_PAGE_SIZE = 100;
+    private static final int SERVER_RUNS = 20;
+    private static final String[] SYLLABLES = {"Ba", "Bu", "Co", "Da", "Fi", "Go", "Ka", "Lu", "Ma", "Mo",
+            "Na", "Pi", "Ro", "Sa", "Ti", "To", "Wi", "Zo", "Be", "Ri"};
+
+    @Autowired
+    private PetService petService;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void serverSideFiltersAgainstClientSideFiltering() throws Exception {
+        List<Long> ownerIds = ensureDataset();
+        AuthenticatedUser owner = new AuthenticatedUser(ownerIds.getFirst(), "filter-bench-0", List.of("ROLE_USER"));
+        AuthenticatedUser admin = new AuthenticatedUser(ownerIds.getFirst(), "filter-bench-0",
+                List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        List<Scenario> scenarios = List.of(
+                new Scenario("owner: type=HAMSTER, age 3-5", owner,
+                        new PetFilter(Set.of(PetType.HAMSTER), 3, 5, null, null)),
+                new Scenario("owner: namePrefix=Zo", owner,
+                        new PetFilter(null, null, null, "Zo", null)),
+                new Scenario("all: type=DOG|CAT, minAge=18", admin,
+                        new PetFilter(Set.of(PetType.DOG, PetType.CAT), 18, null, null, null)),
+                new Scenario("all: namePrefix=ZoZo, maxAge=1", admin,
+                        new PetFilter(null, null, 1, "ZoZo", null)),
+                new Scenario("all: nameContains=RiRiRi", admin,
+                        new PetFilter(null, null, null, null, "RiRiRi")));
+
+        // Warm-up
+        for (Scenario scenario : scenarios) {
+            serverSide(scenario);
+        }
+
+        System.out.printf("%n=== Pet filters, %d rows, first %d matches ===%n", ROWS, PAGE_SIZE);
+        System.out.printf("%-34s %12s %12s %14s %12s %12s%n",
+                "filter", "server ms", "server KB", "client ms", "client rows", "client KB");
+        for (Scenario scenario : scenarios) {
+            long serverBytes = 0;
+            long start = System.nanoTime();
+            List<Long> serverIds = List.of();
+            for (int run = 0; run < SERVER_RUNS; run++) {
+                Page<PetResponse> page = serverSide(scenario);
+                serverBytes = objectMapper.writeValueAsBytes(page).length;
+                serverIds = page.getContent().stream().map(PetResponse::id).toList();
+            }
+            double serverMillis = (System.nanoTime() - start) / 1e6 / SERVER_RUNS;
+
+            start = System.nanoTime();
+            ClientResult client = clientSide(scenario);
+            double clientMillis = (System.nanoTime() - start) / 1e6;
+
+            assertThat(client.ids).isEqualTo(serverIds);
+            System.out.printf("%-34s %12.1f %12.1f %14.1f %12d %12.1f%n", scenario.label, serverMillis,
+                    serverBytes / 1024.0, clientMillis, client.rowsRead, client.bytes / 1024.0);
+        }
+    }
+
+    private Page<PetResponse> serverSide(Scenario scenario) {
+        return petService.getAllPets(scenario.principal, scenario.filter,
+                PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+    }
+
+    // What a client has to do without server-side filters: page through everything it can see
+    private ClientResult clientSide(Scenario scenario) throws Exception {
+        Predicate<PetResponse> matches = matcher(scenario.filter);
+        List<Long> ids = new ArrayList<>();
+        long rowsRead = 0;
+        long bytes = 0;
+        String cursor = null;
+        do {
+            CursorPageResponse<PetResponse> page = petService.getPetsAfter(scenario.principal, PetFilter.NONE,
+                    PetSortField.ID, Sort.Direction.ASC, cursor, CLIENT_PAGE_SIZE);
+            bytes += objectMapper.writeValueAsBytes(page).length;
+            rowsRead += page.content().size();
+            for (PetResponse pet : page.content()) {
+                if (ids.size() < PAGE_SIZE && matches.test(pet)) {
+                    ids.add(pet.id());
+                }
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null && ids.size() < PAGE_SIZE);
+        return new ClientResult(ids, rowsRead, bytes);
+    }
+
+    private static Predicate<PetResponse> matcher(PetFilter filter) {
+        return pet -> (filter.type() == null || filter.type().contains(pet.type()))
+                && (filter.minAge() == null || pet.age() >= filter.minAge())
+                && (filter.maxAge() == null || pet.age() <= filter.maxAge())
+                && (filter.namePrefix() == null || pet.name().startsWith(filter.namePrefix()))
+                && (filter.nameContains() == null || pet.name().contains(filter.nameContains()));
+    }
+
+    // Generated once through JDBC batches. The pet indexes from the migrations are dropped for the
+    // load and rebuilt afterwards, which H2 does far faster than maintaining them row by row
+    private List<Long> ensureDataset() {
+        Role userRole = roleRepository.findByName("ROLE_USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_USER")));
+        List<Long> ownerIds = new ArrayList<>();
+        for (int i = 0; i < OWNERS; i++) {
+            String username = "filter-bench-" + i;
+            ownerIds.add(userRepository.findByUsername(username).orElseGet(() -> {
+                User user = new User();
+                user.setUsername(username);
+                user.setPassword("unused");
+                user.setRoles(Set.of(userRole));
+                return userRepository.save(user);
+            }).getId());
+        }
+
+        // The id generator is bumped last, so it marks a load that finished
+        Long nextId = jdbcTemplate.queryForObject("select next_val from id_generators where name = 'pets'", Long.class);
+        if (nextId != null && nextId == ROWS + 51 && petRepository.count() == ROWS) {
+            return ownerIds;
+        }
+
+        long start = System.nanoTime();
+        Map<String, String> indexes = new LinkedHashMap<>();
+        jdbcTemplate.query("select index_name, column_name from information_schema.index_columns "
+                        + "where table_name = 'pets' and index_name like 'idx\\_pets\\_%' order by index_name, ordinal_position",
+                (RowCallbackHandler) row -> indexes.merge(row.getString(1), row.getString(2), (a, b) -> a + ", " + b));
+        jdbcTemplate.update("delete from pets");
+        indexes.keySet().forEach(name -> jdbcTemplate.execute("drop index " + name));
+
+        Random random = new Random(42);
+        PetType[] types = PetType.values();
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int id = 1; id <= ROWS; id++) {
+            String name = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                    + SYLLABLES[random.nextInt(SYLLABLES.length)];
+            batch.add(new Object[]{id, name, types[random.nextInt(types.length)].name(), random.nextInt(21),
+                    ownerIds.get(id % OWNERS)});
+            if (batch.size() == INSERT_BATCH) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+
+        indexes.forEach((name, columns) -> jdbcTemplate.execute("create index " + name + " on pets (" + columns + ")"));
+        jdbcTemplate.execute("analyze");
+        jdbcTemplate.update("update id_generators set next_val = ? where name = 'pets'", ROWS + 51);
+        System.out.printf("%nGenerated %d pets and rebuilt %d indexes in %.1f s%n",
+                ROWS, indexes.size(), (System.nanoTime() - start) / 1e9);
+        return ownerIds;
+    }
+
+    private void insert(List<Object[]> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "insert into pets (id, name, type, age, owner_id) values (?, ?, ?, ?, ?)", batch));
+        batch.clear();
+    }
+
+    private record Scenario(String label, AuthenticatedUser principal, PetFilter filter) { }
+
+    private record ClientResult(List<Long> ids, long rowsRead, long bytes) { }
+}
@@ -0,0 +1,175 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.util.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Uploads generated NDJSON to POST /pets/import over HTTP, producing the body on the fly
+ * so the client holds no dataset either. Reports lines/s, then repeats the upload while
+ * forcing a GC every 50 ms to find how much live heap the import itself needs on top of
+ * the stored rows; that should not grow with the upload size.
+ * Run with: mvn test -Pbenchmark -Dtest=PetImportBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = VirtualPetsBackendApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.show-sql=false", "ratelimit.enabled=false"})
+class PetImportBenchmark {
+
+    private static final int[] UPLOAD_SIZES = {50_000, 200_000};
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void importThroughputAndHeap() throws Exception {
+        petRepository.deleteAll();
+        Role userRole = roleRepository.findByName("ROLE_USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_USER")));
+        User owner = userRepository.findByUsername("import-bench").orElseGet(() -> {
+            User user = new User();
+            user.setUsername("import-bench");
+            user.setPassword("unused");
+            user.setRoles(Set.of(userRole));
+            return userRepository.save(user);
+        });
+        String bearer = "Bearer " + jwtUtil.generateToken(owner.getId(), owner.getUsername(), Set.of("ROLE_USER"));
+
+        // Warm-up
+        upload(bearer, 5_000);
+
+        for (int lines : UPLOAD_SIZES) {
+            long start = System.nanoTime();
+            JsonNode summary = upload(bearer, lines);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            assertThat(summary.get("accepted").asLong()).isEqualTo(lines);
+
+            System.out.printf("%n=== Pet import, %d NDJSON lines ===%n", lines);
+            System.out.printf("throughput     : %10.0f lines/s%n", lines / seconds);
+            System.out.printf("transient heap : %10.1f MB%n", transientHeap(bearer, lines) / 1e6);
+        }
+    }
+
+    // Peak heap during a second upload minus the heap still used after it, which leaves out
+    // the rows the in-memory database now holds
+    private long transientHeap(String bearer, int lines) throws Exception {
+        System.gc();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong peak = new AtomicLong(memory.getHeapMemoryUsage().getUsed());
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                System.gc();
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        upload(bearer, lines);
+        running.set(false);
+        sampler.join();
+        System.gc();
+        return Math.max(0, peak.get() - memory.getHeapMemoryUsage().getUsed());
+    }
+
+    private JsonNode upload(String bearer, int lines) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/pets/import"))
+                .header("Authorization", bearer)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new GeneratedNdjson(lines)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(response.body());
+    }
+
+    /** Produces {@code lines} NDJSON pets one line at a time. */
+    private static final class GeneratedNdjson extends InputStream {
+        private static final PetType[] TYPES = PetType.values();
+
+        private final int lines;
+        private int produced;
+        private byte[] current = new byte[0];
+        private int position;
+
+        GeneratedNdjson(int lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, n);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() {
+            if (position < current.length) {
+                return true;
+            }
+            if (produced == lines) {
+                return false;
+            }
+            String line = "{\"name\":\"Pet" + produced + "\",\"type\":\"" + TYPES[produced % TYPES.length]
+                    + "\",\"age\":" + (produced % 20) + "}\n";
+            current = line.getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            produced++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetCursor;
+import com.virtualpets.backend.dto.request.PetFilter;
+import com.virtualpets.backend.dto.request.PetSortField;
+import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.model.Pet;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.PetSpecifications;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on H2 (MySQL mode, schema from the Flyway migrations) for the SQL that
+ * Hibernate generates for the pet listings, captured from the repository calls, and
+ * checks that none of them falls back to a table scan and that sorted listings read
+ * their index in order. Every parameter is bound to 1, which is enough for the plan.
+ * Only ascending orders are checked: H2 cannot read an index backwards, MySQL 8 can.
+ * <p>
+ * H2 never reports a sorted read behind an equality condition, so for the owner listing
+ * the in-order read is checked against the generated SQL itself: some index must hold
+ * owner_id followed by exactly the ORDER BY columns, which MySQL reads without a sort.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.virtualpets.virtual_pets_backend.PetIndexUsageTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = VirtualPetsBackendApplication.class)
+class PetIndexUsageTest {
+
+    // The owner filter and the ORDER BY columns, as Hibernate prints them
+    private static final Pattern OWNER_LISTING =
+            Pattern.compile("where \\w+\\.owner_id=\\? order by ((?:\\w+\\.\\w+,?)+) offset");
+
+    private static final PetResponse LAST = new PetResponse(10L, "Buddy", PetType.DOG, 3, "bob", 0L);
+
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearCaptured() {
+        CapturingInspector.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(PetSortField.class)
+    void ownerListing_shouldReadTheOwnersIndexInOrder(PetSortField sortField) {
+        String sql = capture(() -> petRepository.sliceResponsesByOwnerId(1L, firstPage(sortField)));
+
+        assertThat(explain(sql)).doesNotContain("tableScan").contains("owner_id = ?1");
+        Matcher shape = OWNER_LISTING.matcher(sql);
+        assertThat(shape.find()).as(sql).isTrue();
+        List<String> columns = new ArrayList<>(List.of("owner_id"));
+        for (String orderBy : shape.group(1).split(",")) {
+            columns.add(orderBy.substring(orderBy.indexOf('.') + 1));
+        }
+        assertThat(indexColumns()).as("an index on %s", columns).contains(columns);
+    }
+
+    @ParameterizedTest
+    @EnumSource(PetSortField.class)
+    void adminListing_shouldReadAnIndexInOrder(PetSortField sortField) {
+        String plan = explain(() -> petRepository.sliceAllResponses(firstPage(sortField)));
+
+        assertThat(plan).doesNotContain("tableScan").contains("index sorted");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PetSortField.class, names = "ID", mode = EnumSource.Mode.EXCLUDE)
+    void adminKeysetPage_shouldReadAnIndexInOrder(PetSortField sortField) {
+        String plan = explain(() -> petRepository.findResponsesAfter(null, null, sortField, Sort.Direction.ASC,
+                PetCursor.after(sortField, Sort.Direction.ASC, LAST), 11));
+
+        assertThat(plan).doesNotContain("tableScan").contains("index sorted");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PetSortField.class, names = "ID", mode = EnumSource.Mode.EXCLUDE)
+    void sortIndexes_shouldExistForEveryWhitelistedField(PetSortField sortField) {
+        Integer indexes = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.indexes where table_name = 'pets' and index_name in (?, ?)",
+                Integer.class, "idx_pets_" + sortField.attribute(), "idx_pets_owner_" + sortField.attribute());
+
+        assertThat(indexes).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void typeAndAgeFilter_shouldRangeScanTheTypeAgeIndex(boolean owned) {
+        PetFilter filter = new PetFilter(Set.of(PetType.DOG, PetType.CAT), 1, 5, null, null);
+        String plan = explain(() -> petRepository.sliceResponses(spec(owned, filter), firstPage(PetSortField.ID)));
+
+        assertThat(plan).doesNotContain("tableScan")
+                .contains(owned ? "idx_pets_owner_type_age" : "idx_pets_type_age");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void namePrefixFilter_shouldRangeScanTheNameIndex(boolean owned) {
+        PetFilter filter = new PetFilter(null, null, null, "Bu", null);
+        String plan = explain(() -> petRepository.sliceResponses(spec(owned, filter), firstPage(PetSortField.NAME)));
+
+        assertThat(plan).doesNotContain("tableScan")
+                .contains(owned ? "idx_pets_owner_name" : "idx_pets_name");
+    }
+
+    private static Pageable firstPage(PetSortField sortField) {
+        Sort sort = sortField == PetSortField.ID
+                ? Sort.by("id")
+                : Sort.by(sortField.attribute()).and(Sort.by("id"));
+        return PageRequest.of(0, 10, sort);
+    }
+
+    private static Specification<Pet> spec(boolean owned, PetFilter filter) {
+        Specification<Pet> matching = PetSpecifications.matching(filter);
+        return owned ? PetSpecifications.ownedBy(1L).and(matching) : matching;
+    }
+
+    private String explain(Runnable query) {
+        return explain(capture(query));
+    }
+
+    // Runs the repository call and returns the one listing select it sent
+    private static String capture(Runnable query) {
+        query.run();
+        List<String> selects = CapturingInspector.captured();
+        assertThat(selects).hasSize(1);
+        return selects.getFirst();
+    }
+
+    private String explain(String sql) {
+        Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        Arrays.fill(parameters, 1);
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, parameters);
+    }
+
+    // Column lists of the pets indexes, each in index order
+    private List<List<String>> indexColumns() {
+        Map<String, List<String>> columns = new LinkedHashMap<>();
+        jdbcTemplate.query("select index_name, column_name from information_schema.index_columns "
+                        + "where table_name = 'pets' order by index_name, ordinal_position",
+                (RowCallbackHandler) row -> columns.computeIfAbsent(row.getString(1), name -> new ArrayList<>())
+                        .add(row.getString(2)));
+        return List.copyOf(columns.values());
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        private static final List<String> CAPTURED = new ArrayList<>();
+
+        static synchronized void clear() {
+            CAPTURED.clear();
+        }
+
+        static synchronized List<String> captured() {
+            return List.copyOf(CAPTURED);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (CapturingInspector.class) {
+                if (sql.startsWith("select")) {
+                    CAPTURED.add(sql);
+                }
+            }
+            return sql;
+        }
+    }
+}
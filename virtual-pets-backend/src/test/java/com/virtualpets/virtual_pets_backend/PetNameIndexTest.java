@@ -0,0 +1,133 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.dto.response.PetSuggestion;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.service.PetChangedEvent;
+import com.virtualpets.backend.service.PetCountCache;
+import com.virtualpets.backend.service.PetNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetNameIndexTest {
+
+    @Mock
+    private PetRepository petRepository;
+    @Mock
+    private PetCountCache petCountCache;
+
+    private PetNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PetNameIndex(petRepository, petCountCache, 1_000);
+    }
+
+    @Test
+    void ownerNamesAreLoadedOnceAndMatchedIgnoringCase() {
+        when(petRepository.findSuggestionsByOwnerId(1L)).thenReturn(List.of(
+                new PetSuggestion(3L, "buster"), new PetSuggestion(1L, "Buddy"),
+                new PetSuggestion(2L, "Max"), new PetSuggestion(4L, "Bubbles")));
+
+        List<PetSuggestion> first = index.suggest(1L, "BU", 10);
+        List<PetSuggestion> limited = index.suggest(1L, "bu", 2);
+
+        assertThat(first).extracting(PetSuggestion::name).containsExactly("Bubbles", "Buddy", "buster");
+        assertThat(limited).extracting(PetSuggestion::name).containsExactly("Bubbles", "Buddy");
+        assertThat(index.suggest(1L, "z", 10)).isEmpty();
+        verify(petRepository, times(1)).findSuggestionsByOwnerId(1L);
+    }
+
+    @Test
+    void singlePetChangesUpdateTheLoadedNamesInPlace() {
+        when(petRepository.findSuggestionsByOwnerId(1L)).thenReturn(List.of(
+                new PetSuggestion(1L, "Buddy"), new PetSuggestion(2L, "Max")));
+        index.suggest(1L, "b", 10);
+
+        index.onPetChanged(PetChangedEvent.saved(1L, 3L, "Bella"));
+        index.onPetChanged(PetChangedEvent.saved(1L, 2L, "Bonnie"));
+        index.onPetChanged(PetChangedEvent.deleted(1L, 1L));
+
+        assertThat(index.suggest(1L, "b", 10)).extracting(PetSuggestion::id).containsExactly(3L, 2L);
+        assertThat(index.suggest(1L, "m", 10)).isEmpty();
+        verify(petRepository, times(1)).findSuggestionsByOwnerId(1L);
+    }
+
+    @Test
+    void adminChangeFindsThePetWithoutKnowingTheOwner() {
+        when(petRepository.findSuggestionsByOwnerId(1L)).thenReturn(List.of(new PetSuggestion(1L, "Buddy")));
+        index.suggest(1L, "b", 10);
+
+        index.onPetChanged(PetChangedEvent.saved(null, 1L, "Rex"));
+
+        assertThat(index.suggest(1L, "r", 10)).extracting(PetSuggestion::name).containsExactly("Rex");
+        verify(petRepository, times(1)).findSuggestionsByOwnerId(1L);
+    }
+
+    @Test
+    void bulkChangeDropsTheOwnerUntilTheNextLookup() {
+        when(petRepository.findSuggestionsByOwnerId(1L))
+                .thenReturn(List.of(new PetSuggestion(1L, "Buddy")))
+                .thenReturn(List.of(new PetSuggestion(1L, "Buddy"), new PetSuggestion(5L, "Bolt")));
+        index.suggest(1L, "b", 10);
+
+        index.onPetChanged(new PetChangedEvent(1L));
+
+        assertThat(index.ownerCount()).isZero();
+        assertThat(index.suggest(1L, "b", 10)).extracting(PetSuggestion::name).containsExactly("Bolt", "Buddy");
+        assertThat(index.loads()).isEqualTo(2);
+    }
+
+    @Test
+    void loadRacingWithAChangeIsServedButNotKept() {
+        when(petRepository.findSuggestionsByOwnerId(1L)).thenAnswer(invocation -> {
+            index.onPetChanged(PetChangedEvent.saved(1L, 9L, "Late"));
+            return List.of(new PetSuggestion(1L, "Buddy"));
+        });
+
+        index.suggest(1L, "b", 10);
+
+        assertThat(index.ownerCount()).isZero();
+    }
+
+    @Test
+    void adminsSearchEveryPetInMemoryBelowTheLimit() {
+        when(petCountCache.totalPets()).thenReturn(2L);
+        when(petRepository.findAllSuggestions()).thenReturn(List.of(
+                new PetSuggestion(1L, "Buddy"), new PetSuggestion(2L, "Bella")));
+
+        index.suggest(null, "b", 10);
+        index.onPetChanged(PetChangedEvent.saved(7L, 3L, "Bo"));
+
+        assertThat(index.suggest(null, "b", 10)).extracting(PetSuggestion::name).containsExactly("Bella", "Bo", "Buddy");
+        assertThat(index.globalSize()).isEqualTo(3);
+        verify(petRepository, times(1)).findAllSuggestions();
+    }
+
+    @Test
+    void adminsSearchTheDatabaseAboveTheLimit() {
+        when(petCountCache.totalPets()).thenReturn(5_000L);
+        when(petRepository.sliceResponses(any(), any(Pageable.class))).thenReturn(
+                new SliceImpl<>(List.of(new PetResponse(1L, "Buddy", PetType.DOG, 3, "bob", 0L))));
+
+        List<PetSuggestion> suggestions = index.suggest(null, "Bu", 10);
+
+        assertThat(suggestions).containsExactly(new PetSuggestion(1L, "Buddy"));
+        assertThat(index.globalSize()).isEqualTo(-1);
+        assertThat(index.databaseLookups()).isEqualTo(1);
+        verify(petRepository, never()).findAllSuggestions();
+    }
+}
@@ -0,0 +1,116 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.config.CacheConfig;
+import com.virtualpets.backend.dto.response.TopOwnerResponse;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.service.OwnerPetCountChange;
+import com.virtualpets.backend.service.PetOwnerRanking;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetOwnerRankingTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
+            CacheConfig.USER_BY_USERNAME, CacheConfig.USER_PAGES);
+    private PetOwnerRanking ranking;
+
+    @BeforeEach
+    void setUp() {
+        ranking = new PetOwnerRanking(userRepository, cacheManager, 60_000, () -> 0L);
+    }
+
+    @Test
+    void ownersAreRankedByPetCountThenId() {
+        when(userRepository.findPetOwners()).thenReturn(List.of(
+                new TopOwnerResponse(3L, "carol", 2), new TopOwnerResponse(1L, "bob", 5),
+                new TopOwnerResponse(2L, "alice", 2)));
+
+        assertThat(ranking.top(10)).extracting(TopOwnerResponse::username).containsExactly("bob", "alice", "carol");
+        assertThat(ranking.top(1)).containsExactly(new TopOwnerResponse(1L, "bob", 5));
+        verify(userRepository, times(1)).findPetOwners();
+    }
+
+    @Test
+    void changesMoveOwnersWithoutQuerying() {
+        when(userRepository.findPetOwners()).thenReturn(List.of(
+                new TopOwnerResponse(1L, "bob", 2), new TopOwnerResponse(2L, "alice", 1)));
+        ranking.load();
+
+        ranking.onPetCountChanged(new OwnerPetCountChange(2L, "alice", 3));
+        ranking.onPetCountChanged(new OwnerPetCountChange(4L, "dave", 1));
+        ranking.onPetCountChanged(new OwnerPetCountChange(1L, null, -2));
+
+        assertThat(ranking.top(10)).containsExactly(
+                new TopOwnerResponse(2L, "alice", 4), new TopOwnerResponse(4L, "dave", 1));
+        assertThat(ranking.size()).isEqualTo(2);
+        verify(userRepository, times(1)).findPetOwners();
+    }
+
+    @Test
+    void changeForAnUnknownOwnerReloadsOnTheNextCheck() {
+        when(userRepository.findPetOwners())
+                .thenReturn(List.of())
+                .thenReturn(List.of(new TopOwnerResponse(7L, "erin", 3)));
+        ranking.load();
+
+        ranking.reloadIfDue();
+        ranking.onPetCountChanged(new OwnerPetCountChange(7L, null, 1));
+        ranking.reloadIfDue();
+
+        assertThat(ranking.reloads()).isEqualTo(2);
+        assertThat(ranking.top(10)).containsExactly(new TopOwnerResponse(7L, "erin", 3));
+    }
+
+    @Test
+    void changeEvictsTheOwnersCachedUser() {
+        when(userRepository.findPetOwners()).thenReturn(List.of(new TopOwnerResponse(1L, "bob", 2)));
+        ranking.load();
+        cacheManager.getCache(CacheConfig.USER_BY_USERNAME).put("bob", "cached");
+        cacheManager.getCache(CacheConfig.USER_BY_USERNAME).put("alice", "cached");
+
+        ranking.onPetCountChanged(new OwnerPetCountChange(1L, null, 1));
+
+        assertThat(cacheManager.getCache(CacheConfig.USER_BY_USERNAME).get("bob")).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.USER_BY_USERNAME).get("alice")).isNotNull();
+    }
+
+    @Test
+    void changeEvictsCachedUserPagesAndUnnamedOwners() {
+        when(userRepository.findPetOwners()).thenReturn(List.of());
+        ranking.load();
+        cacheManager.getCache(CacheConfig.USER_PAGES).put("0:10", "cached");
+        cacheManager.getCache(CacheConfig.USER_BY_USERNAME).put("erin", "cached");
+
+        // Erin is not ranked yet and the writer only knew her id
+        ranking.onPetCountChanged(new OwnerPetCountChange(7L, null, 1));
+
+        assertThat(cacheManager.getCache(CacheConfig.USER_PAGES).get("0:10")).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.USER_BY_USERNAME).get("erin")).isNull();
+    }
+
+    @Test
+    void changeCommittedDuringAReloadIsKept() {
+        when(userRepository.findPetOwners()).thenReturn(List.of()).thenAnswer(invocation -> {
+            ranking.onPetCountChanged(new OwnerPetCountChange(2L, "alice", 1));
+            return List.of(new TopOwnerResponse(1L, "bob", 2));
+        });
+        ranking.load();
+
+        ranking.reload();
+
+        assertThat(ranking.top(10)).extracting(TopOwnerResponse::username).containsExactly("bob", "alice");
+    }
+}
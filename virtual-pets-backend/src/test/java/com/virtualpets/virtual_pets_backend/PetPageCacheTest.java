@@ -0,0 +1,123 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.service.PetChangedEvent;
+import com.virtualpets.backend.service.PetPageCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PetPageCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void secondReadIsServedFromOffHeapCopy() throws IOException {
+        PetPageCache cache = new PetPageCache(true, 1024, 60_000, now::get);
+
+        ByteBuffer first = cache.getOrLoad(1L, "page:0", loader("[1]"));
+        ByteBuffer second = cache.getOrLoad(1L, "page:0", loader("[2]"));
+
+        assertThat(text(first)).isEqualTo("[1]");
+        assertThat(text(second)).isEqualTo("[1]");
+        assertThat(second.isDirect()).isTrue();
+        assertThat(second.isReadOnly()).isTrue();
+        assertThat(loads).hasValue(1);
+        assertThat(cache.hitRatioPerMille()).isEqualTo(500);
+    }
+
+    @Test
+    void changeEventInvalidatesOnlyThatOwner() throws IOException {
+        PetPageCache cache = new PetPageCache(true, 1024, 60_000, now::get);
+        cache.getOrLoad(1L, "page:0", loader("[a]"));
+        cache.getOrLoad(2L, "page:0", loader("[b]"));
+
+        cache.onPetChanged(new PetChangedEvent(1L));
+
+        assertThat(text(cache.getOrLoad(1L, "page:0", loader("[a2]")))).isEqualTo("[a2]");
+        assertThat(text(cache.getOrLoad(2L, "page:0", loader("[b2]")))).isEqualTo("[b]");
+        assertThat(cache.invalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownOwnerEventInvalidatesEveryone() throws IOException {
+        PetPageCache cache = new PetPageCache(true, 1024, 60_000, now::get);
+        cache.getOrLoad(1L, "page:0", loader("[a]"));
+        cache.getOrLoad(2L, "page:0", loader("[b]"));
+
+        cache.onPetChanged(PetChangedEvent.anyOwner());
+
+        cache.getOrLoad(1L, "page:0", loader("[a2]"));
+        cache.getOrLoad(2L, "page:0", loader("[b2]"));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws IOException {
+        PetPageCache cache = new PetPageCache(true, 1024, 5_000, now::get);
+        cache.getOrLoad(1L, "page:0", loader("[a]"));
+
+        now.addAndGet(5_000);
+
+        assertThat(text(cache.getOrLoad(1L, "page:0", loader("[a2]")))).isEqualTo("[a2]");
+    }
+
+    @Test
+    void leastRecentlyUsedPagesAreEvictedAtTheByteCap() throws IOException {
+        PetPageCache cache = new PetPageCache(true, 160, 60_000, now::get);
+        String tenBytes = "[12345678]";
+
+        cache.getOrLoad(1L, "page:0", loader(tenBytes));
+        for (int i = 1; i < 16; i++) {
+            cache.getOrLoad(1L, "page:" + i, loader(tenBytes));
+        }
+        cache.getOrLoad(1L, "page:0", loader(tenBytes));
+        cache.getOrLoad(1L, "page:16", loader(tenBytes));
+
+        assertThat(cache.usedBytes()).isLessThanOrEqualTo(160);
+        assertThat(cache.evictions()).isEqualTo(1);
+        int before = loads.get();
+        cache.getOrLoad(1L, "page:0", loader(tenBytes));
+        assertThat(loads).hasValue(before);
+    }
+
+    @Test
+    void oversizedPagesAreServedButNotStored() throws IOException {
+        PetPageCache cache = new PetPageCache(true, 160, 60_000, now::get);
+
+        cache.getOrLoad(1L, "page:0", loader("x".repeat(11)));
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.oversized()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() throws IOException {
+        PetPageCache cache = new PetPageCache(false, 1024, 60_000, now::get);
+
+        cache.getOrLoad(1L, "page:0", loader("[a]"));
+        cache.getOrLoad(1L, "page:0", loader("[a]"));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    private PetPageCache.PageLoader loader(String json) {
+        return () -> {
+            loads.incrementAndGet();
+            return json.getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,10 +1,18 @@
 package com.virtualpets.virtual_pets_backend;
 
 import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetBulkUpdateRequest;
+import com.virtualpets.backend.dto.request.PetCursor;
+import com.virtualpets.backend.dto.request.PetSortField;
+import com.virtualpets.backend.dto.response.PetResponse;
 import com.virtualpets.backend.model.Pet;
 import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.OwnerPetStats;
 import com.virtualpets.backend.repository.PetRepository;
 import com.virtualpets.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,13 +20,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @ContextConfiguration(classes = VirtualPetsBackendApplication.class)
 public class PetRepositoryTest {
 
@@ -28,6 +41,9 @@ public class PetRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User owner;
     private Pet pet;
 
@@ -55,12 +71,170 @@ public class PetRepositoryTest {
     }
 
     @Test
-    void whenFindByOwnerWithPageable_thenReturnPetsPage() {
-        Page<Pet> petsPage = petRepository.findByOwner(owner, PageRequest.of(0, 10));
+    void whenFindAllResponses_thenOnePageCostsTwoStatements() {
+        for (int u = 0; u < 5; u++) {
+            User other = userRepository.save(User.builder().username("owner" + u).password("password").build());
+            for (int i = 0; i < 10; i++) {
+                petRepository.save(Pet.builder().name("Pet" + u + "-" + i).type(Pet.PetType.CAT).age(i).owner(other).build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<PetResponse> page = petRepository.findAllResponses(PageRequest.of(0, 20, Sort.by("id")));
+
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getTotalElements()).isEqualTo(51);
+        assertThat(page.getContent()).allSatisfy(response -> assertThat(response.ownerUsername()).isNotNull());
+        // Page select plus count; owners are never loaded as entities
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void whenSliceAllResponses_thenNoCountQueryIsIssued() {
+        for (int i = 0; i < 5; i++) {
+            petRepository.save(Pet.builder().name("Pet" + i).type(Pet.PetType.DOG).age(i).owner(owner).build());
+        }
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Slice<PetResponse> slice = petRepository.sliceAllResponses(PageRequest.of(0, 4, Sort.by("id")));
+
+        assertThat(slice.getContent()).hasSize(4);
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenFindResponsesByOwnerId_thenOnlyOwnersPetsAreReturned() {
+        User other = userRepository.save(User.builder().username("other").password("password").build());
+        petRepository.save(Pet.builder().name("Mittens").type(Pet.PetType.CAT).age(2).owner(other).build());
+
+        Page<PetResponse> page = petRepository.findResponsesByOwnerId(owner.getId(), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(PetResponse::name).containsExactly("Buddy");
+        assertThat(page.getContent().getFirst().ownerUsername()).isEqualTo("testuser");
+    }
+
+    @Test
+    void whenFindResponsesAfter_thenKeysetPagesCoverEveryPetOnce() {
+        // Duplicate names force the id tiebreaker to do its job
+        for (int i = 0; i < 7; i++) {
+            petRepository.save(Pet.builder().name(i % 2 == 0 ? "Same" : "Other" + i).type(Pet.PetType.DOG).age(i).owner(owner).build());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        PetCursor cursor = null;
+        do {
+            List<PetResponse> page = petRepository.findResponsesAfter(
+                    owner.getId(), null, PetSortField.NAME, Sort.Direction.DESC, cursor, 3);
+            page.forEach(response -> seen.add(response.id()));
+            cursor = page.size() < 3 ? null : PetCursor.after(PetSortField.NAME, Sort.Direction.DESC, page.getLast());
+        } while (cursor != null);
+
+        List<Long> expected = petRepository.findResponsesByOwnerId(owner.getId(),
+                        PageRequest.of(0, 100, Sort.by(Sort.Order.desc("name"), Sort.Order.desc("id"))))
+                .map(PetResponse::id)
+                .getContent();
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void whenSaveAll_thenInsertsAreBatched() {
+        List<Pet> pets = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            pets.add(Pet.builder().name("Batch" + i).type(Pet.PetType.HAMSTER).age(1).owner(owner).build());
+        }
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        petRepository.saveAll(pets);
+        entityManager.flush();
+
+        assertThat(pets).allSatisfy(saved -> assertThat(saved.getId()).isGreaterThan(pet.getId()));
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(30);
+        // One batched insert statement plus the id-block allocations, not one statement per pet
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+    }
+
+    @Test
+    void whenUpdateOwned_thenOneStatementAndOtherOwnersAreRejected() {
+        User other = userRepository.save(User.builder().username("other").password("password").build());
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(petRepository.updateOwned(pet.getId(), other.getId(), null, "Stolen", Pet.PetType.CAT, 1, Instant.now())).isZero();
+        assertThat(petRepository.updateOwned(pet.getId(), owner.getId(), null, "Max", Pet.PetType.DOG, 4, Instant.now())).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        assertThat(petRepository.findResponseByIdAndOwnerId(pet.getId(), other.getId())).isEmpty();
+        assertThat(petRepository.findResponseByIdAndOwnerId(pet.getId(), owner.getId()))
+                .hasValueSatisfying(response -> {
+                    assertThat(response.name()).isEqualTo("Max");
+                    assertThat(response.ownerUsername()).isEqualTo("testuser");
+                });
+    }
+
+    @Test
+    void whenStatsByOwnerId_thenCountAndLatestChangeComeFromOneQuery() {
+        petRepository.save(Pet.builder().name("Tom").type(Pet.PetType.CAT).age(2).owner(owner).build());
+        entityManager.flush();
+
+        OwnerPetStats stats = petRepository.statsByOwnerId(owner.getId());
+
+        assertThat(stats.count()).isEqualTo(2);
+        assertThat(stats.lastModified()).isNotNull().isAfterOrEqualTo(pet.getUpdatedAt());
+    }
+
+    @Test
+    void whenBulkUpdate_thenOneStatementChangesOnlyTheOwnersMatchingPets() {
+        User other = userRepository.save(User.builder().username("other").password("password").build());
+        Pet othersDog = petRepository.save(Pet.builder().name("Rex").type(Pet.PetType.DOG).age(3).owner(other).build());
+        Pet ownCat = petRepository.save(Pet.builder().name("Tom").type(Pet.PetType.CAT).age(3).owner(owner).build());
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        int updated = petRepository.bulkUpdate(owner.getId(),
+                new PetBulkUpdateRequest(null, Pet.PetType.DOG, null, null, null, null, 7));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        entityManager.clear();
+        assertThat(petRepository.findById(pet.getId()).orElseThrow().getAge()).isEqualTo(7);
+        assertThat(petRepository.findById(othersDog.getId()).orElseThrow().getAge()).isEqualTo(3);
+        assertThat(petRepository.findById(ownCat.getId()).orElseThrow().getAge()).isEqualTo(3);
+    }
+
+    @Test
+    void whenDeleteOwnedByIds_thenOtherOwnersPetsSurvive() {
+        User other = userRepository.save(User.builder().username("other").password("password").build());
+        Pet othersDog = petRepository.save(Pet.builder().name("Rex").type(Pet.PetType.DOG).age(3).owner(other).build());
+
+        int deleted = petRepository.deleteOwnedByIds(List.of(pet.getId(), othersDog.getId()), owner.getId());
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(petRepository.existsById(pet.getId())).isFalse();
+        assertThat(petRepository.existsById(othersDog.getId())).isTrue();
+    }
+
+    @Test
+    void whenTransferOwnership_thenAllPetsMoveInOneStatement() {
+        User other = userRepository.save(User.builder().username("other").password("password").build());
+        petRepository.save(Pet.builder().name("Tom").type(Pet.PetType.CAT).age(2).owner(owner).build());
+
+        int moved = petRepository.transferOwnership(owner.getId(), other, Instant.now());
 
-        assertThat(petsPage).isNotNull();
-        assertThat(petsPage.getTotalElements()).isEqualTo(1);
-        assertThat(petsPage.getContent().getFirst().getOwner().getUsername()).isEqualTo("testuser");
+        assertThat(moved).isEqualTo(2);
+        assertThat(petRepository.findResponsesByOwnerId(owner.getId(), PageRequest.of(0, 10))).isEmpty();
+        assertThat(petRepository.findResponsesByOwnerId(other.getId(), PageRequest.of(0, 10)).getTotalElements())
+                .isEqualTo(2);
     }
 
     @Test
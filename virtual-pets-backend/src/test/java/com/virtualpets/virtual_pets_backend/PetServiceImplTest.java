@@ -1,24 +1,51 @@
 package com.virtualpets.virtual_pets_backend;
 
+import com.virtualpets.backend.dto.request.PetFilter;
+import com.virtualpets.backend.dto.request.PetPatchRequest;
 import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.request.PetTransferRequest;
+import com.virtualpets.backend.dto.response.BulkOperationResponse;
+import com.virtualpets.backend.dto.response.PetBatchResponse;
 import com.virtualpets.backend.dto.response.PetResponse;
+import com.virtualpets.backend.dto.response.PetSuggestion;
+import com.virtualpets.backend.dto.response.SliceResponse;
+import com.virtualpets.backend.exception.PreconditionFailedException;
+import com.virtualpets.backend.exception.ResourceNotFoundException;
+import com.virtualpets.backend.exception.UnauthorizedActionException;
+import com.virtualpets.backend.mapper.PetMapper;
 import com.virtualpets.backend.model.Pet;
 import com.virtualpets.backend.model.Pet.PetType;
 import com.virtualpets.backend.model.Role;
 import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.LockedPet;
 import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.PetTypeAgeCount;
 import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.OwnerPetCountChange;
+import com.virtualpets.backend.service.PetChangedEvent;
+import com.virtualpets.backend.service.PetCountCache;
+import com.virtualpets.backend.service.PetNameIndex;
+import com.virtualpets.backend.service.PetStatsCounters;
+import com.virtualpets.backend.service.PetStatsDelta;
+import com.virtualpets.backend.service.UserIdentityCache;
 import com.virtualpets.backend.service.impl.PetServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -36,12 +63,30 @@ class PetServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PetCountCache petCountCache;
+
+    @Mock
+    private UserIdentityCache identityCache;
+
+    @Mock
+    private PetNameIndex nameIndex;
+
+    @Mock
+    private PetStatsCounters statsCounters;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PetServiceImpl petService;
 
     private User user;
     private Pet pet;
     private PetRequest petRequest;
+    private AuthenticatedUser bob;
+    private AuthenticatedUser alice;
+    private AuthenticatedUser admin;
 
     @BeforeEach
     void setup() {
@@ -76,27 +121,59 @@ class PetServiceImplTest {
                 .build();
 
         petRequest = new PetRequest("Buddy", PetType.DOG, 3);
+
+        bob = new AuthenticatedUser(1L, "bob", List.of("ROLE_USER"));
+        alice = new AuthenticatedUser(2L, "alice", List.of("ROLE_USER"));
+        admin = new AuthenticatedUser(99L, "admin", List.of("ROLE_USER", "ROLE_ADMIN"));
     }
 
     @Test
     void createPet_shouldReturnPetResponse() {
-        when(userRepository.findByUsername("bob")).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(petRepository.save(any(Pet.class))).thenReturn(pet);
 
-        PetResponse response = petService.createPet(petRequest, "bob");
+        PetResponse response = petService.createPet(petRequest, bob);
 
         assertNotNull(response);
         assertEquals("Buddy", response.name());
         assertEquals("bob", response.ownerUsername());
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void createPet_shouldIncrementTheOwnersCountBeforeInserting() {
+        when(petRepository.save(any(Pet.class))).thenReturn(pet);
+
+        petService.createPet(petRequest, bob);
+
+        InOrder order = inOrder(userRepository, petRepository);
+        order.verify(userRepository).addPetCount(1L, 1);
+        order.verify(petRepository).save(any(Pet.class));
+        verify(eventPublisher).publishEvent(new OwnerPetCountChange(1L, "bob", 1));
+    }
+
+    @Test
+    void createPets_shouldSaveAllWithOneOwnerReference() {
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(petRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PetBatchResponse response = petService.createPets(
+                List.of(petRequest, new PetRequest("Tom", PetType.CAT, 2)), bob);
+
+        assertEquals(2, response.created());
+        assertEquals("Tom", response.pets().get(1).name());
+        assertEquals("bob", response.pets().get(1).ownerUsername());
+        verify(userRepository, times(1)).getReferenceById(1L);
+        verify(petRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new PetChangedEvent(1L));
     }
 
     @Test
     void getAllPets_shouldReturnPetsForUser() {
-        when(userRepository.findByUsername("bob")).thenReturn(Optional.of(user));
-        Page<Pet> petPage = new PageImpl<>(List.of(pet));
-        when(petRepository.findByOwner(eq(user), any(PageRequest.class))).thenReturn(petPage);
+        Page<PetResponse> petPage = new PageImpl<>(List.of(PetMapper.toResponse(pet, "bob")));
+        when(petRepository.findResponsesByOwnerId(eq(1L), any(PageRequest.class))).thenReturn(petPage);
 
-        Page<PetResponse> pets = petService.getAllPets("bob", PageRequest.of(0, 10));
+        Page<PetResponse> pets = petService.getAllPets(bob, PetFilter.NONE, PageRequest.of(0, 10));
 
         assertEquals(1, pets.getTotalElements());
         assertEquals("Buddy", pets.getContent().getFirst().name());
@@ -104,65 +181,268 @@ class PetServiceImplTest {
 
     @Test
     void getAllPets_shouldReturnAllPetsForAdmin() {
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(
-                User.builder().id(2L).username("admin").roles(Set.of(
-                        new Role(1L, "ROLE_USER"),
-                        new Role(2L, "ROLE_ADMIN")
-                )).build()
-        ));
+        Page<PetResponse> petPage = new PageImpl<>(List.of(PetMapper.toResponse(pet, "bob")));
+        when(petRepository.findAllResponses(any(PageRequest.class))).thenReturn(petPage);
 
-        Page<Pet> petPage = new PageImpl<>(List.of(pet));
-        when(petRepository.findAll(any(PageRequest.class))).thenReturn(petPage);
-
-        Page<PetResponse> pets = petService.getAllPets("admin", PageRequest.of(0, 10));
+        Page<PetResponse> pets = petService.getAllPets(admin, PetFilter.NONE, PageRequest.of(0, 10));
 
         assertEquals(1, pets.getTotalElements());
         assertEquals("Buddy", pets.getContent().getFirst().name());
     }
 
+    @Test
+    void getPetSlice_shouldUseCachedTotalInsteadOfCountQuery() {
+        Slice<PetResponse> slice = new SliceImpl<>(List.of(PetMapper.toResponse(pet, "bob")), PageRequest.of(0, 1), true);
+        when(petRepository.sliceAllResponses(any(PageRequest.class))).thenReturn(slice);
+        when(petCountCache.totalPets()).thenReturn(42L);
+
+        SliceResponse<PetResponse> response = petService.getPetSlice(admin, PetFilter.NONE, PageRequest.of(0, 1), true);
+
+        assertTrue(response.hasNext());
+        assertEquals(42L, response.approximateTotal());
+        verify(petRepository, never()).count();
+        verify(petRepository, never()).findAllResponses(any());
+    }
+
+    @Test
+    void getPetSlice_withoutTotal_shouldNotTouchCounts() {
+        Slice<PetResponse> slice = new SliceImpl<>(List.of(PetMapper.toResponse(pet, "bob")), PageRequest.of(0, 10), false);
+        when(petRepository.sliceResponsesByOwnerId(eq(1L), any(PageRequest.class))).thenReturn(slice);
+
+        SliceResponse<PetResponse> response = petService.getPetSlice(bob, PetFilter.NONE, PageRequest.of(0, 10), false);
+
+        assertFalse(response.hasNext());
+        assertNull(response.approximateTotal());
+        verifyNoInteractions(petCountCache);
+    }
+
+    @Test
+    void getPetSlice_withFilter_shouldUseSpecificationAndSkipTotal() {
+        Slice<PetResponse> slice = new SliceImpl<>(List.of(PetMapper.toResponse(pet, "bob")), PageRequest.of(0, 10), false);
+        when(petRepository.sliceResponses(any(), any(PageRequest.class))).thenReturn(slice);
+        PetFilter dogs = new PetFilter(Set.of(PetType.DOG), null, null, null, null);
+
+        SliceResponse<PetResponse> response = petService.getPetSlice(bob, dogs, PageRequest.of(0, 10), true);
+
+        assertEquals(1, response.content().size());
+        assertNull(response.approximateTotal());
+        verify(petRepository, never()).sliceResponsesByOwnerId(any(), any());
+        verifyNoInteractions(petCountCache);
+    }
+
+    @Test
+    void suggestPets_shouldScopeOwnersToTheirOwnPets() {
+        when(nameIndex.suggest(1L, "Bu", 10)).thenReturn(List.of(new PetSuggestion(1L, "Buddy")));
+
+        List<PetSuggestion> suggestions = petService.suggestPets("Bu", 10, bob);
+
+        assertEquals("Buddy", suggestions.getFirst().name());
+        petService.suggestPets("Bu", 10, admin);
+        verify(nameIndex).suggest(null, "Bu", 10);
+        verifyNoInteractions(petRepository);
+    }
+
+    @Test
+    void suggestPets_shouldRejectBlankPrefixAndOversizedLimit() {
+        assertThrows(IllegalArgumentException.class, () -> petService.suggestPets(" ", 10, bob));
+        assertThrows(IllegalArgumentException.class, () -> petService.suggestPets("Bu", 51, bob));
+        verifyNoInteractions(nameIndex);
+    }
+
     @Test
     void getPetById_shouldReturnPetWhenOwner() {
-        when(petRepository.findById(1L)).thenReturn(Optional.of(pet));
-        when(userRepository.findByUsername("bob")).thenReturn(Optional.of(user));
+        when(petRepository.findResponseByIdAndOwnerId(1L, 1L))
+                .thenReturn(Optional.of(PetMapper.toResponse(pet, "bob")));
 
-        PetResponse response = petService.getPetById(1L, "bob");
+        PetResponse response = petService.getPetById(1L, bob);
 
         assertEquals("Buddy", response.name());
+        verify(petRepository, never()).existsById(any());
     }
 
     @Test
     void getPetById_shouldThrowWhenNotOwnerOrAdmin() {
-        when(petRepository.findById(1L)).thenReturn(Optional.of(pet));
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(
-                User.builder().id(2L).username("alice").roles(new HashSet<>()).build()
-        ));
+        when(petRepository.findResponseByIdAndOwnerId(1L, 2L)).thenReturn(Optional.empty());
+        when(petRepository.existsById(1L)).thenReturn(true);
 
-        Exception ex = assertThrows(RuntimeException.class, () ->
-                petService.getPetById(1L, "alice"));
+        Exception ex = assertThrows(UnauthorizedActionException.class, () ->
+                petService.getPetById(1L, alice));
 
         assertTrue(ex.getMessage().contains("not authorized"));
     }
 
+    @Test
+    void getPetById_shouldThrowNotFoundWhenPetIsMissing() {
+        when(petRepository.findResponseByIdAndOwnerId(1L, 2L)).thenReturn(Optional.empty());
+        when(petRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> petService.getPetById(1L, alice));
+    }
+
     @Test
     void updatePet_shouldUpdateAndReturnPet() {
         PetRequest updateRequest = new PetRequest("BuddyUpdated", PetType.DOG, 4);
-        when(petRepository.findById(1L)).thenReturn(Optional.of(pet));
-        when(userRepository.findByUsername("bob")).thenReturn(Optional.of(user));
-        when(petRepository.save(any(Pet.class))).thenReturn(pet);
+        when(petRepository.lockByIds(List.of(1L), null)).thenReturn(List.of(new LockedPet(1L, 1L, PetType.DOG, 3, 3L)));
+        when(petRepository.updateOwned(eq(1L), eq(1L), eq(3L), eq("BuddyUpdated"), eq(PetType.DOG), eq(4), any(Instant.class)))
+                .thenReturn(1);
 
-        PetResponse updated = petService.updatePet(1L, updateRequest, "bob");
+        PetResponse updated = petService.updatePet(1L, updateRequest, 3L, bob);
 
         assertEquals("BuddyUpdated", updated.name());
         assertEquals(4, updated.age());
+        assertEquals("bob", updated.ownerUsername());
+        assertEquals(4L, updated.version());
+        verify(petRepository).updateOwned(eq(1L), eq(1L), eq(3L), eq("BuddyUpdated"), eq(PetType.DOG), eq(4), any(Instant.class));
+        verify(petRepository, never()).findById(any());
+        verify(petRepository, never()).findResponseById(any());
     }
 
     @Test
-    void deletePet_shouldCallRepository() {
+    void updatePet_shouldFailWhenTheUpdateMatchesNoRow() {
+        when(petRepository.lockByIds(List.of(1L), null)).thenReturn(List.of(new LockedPet(1L, 1L, PetType.DOG, 3, 3L)));
+        when(petRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> petService.updatePet(1L, new PetRequest("Rex", PetType.DOG, 4), 3L, bob));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void deletePet_shouldFailWhenTheDeleteMatchesNoRow() {
+        when(petRepository.lockByIds(List.of(1L), null)).thenReturn(List.of(new LockedPet(1L, 1L, PetType.DOG, 3, 0L)));
+
+        assertThrows(ResourceNotFoundException.class, () -> petService.deletePet(1L, bob));
+        verify(userRepository, never()).addPetCount(any(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updatePet_shouldThrowPreconditionFailedWhenVersionIsStale() {
+        when(petRepository.lockByIds(List.of(1L), null)).thenReturn(List.of(new LockedPet(1L, 1L, PetType.DOG, 3, 5L)));
+
+        assertThrows(PreconditionFailedException.class, () -> petService.updatePet(1L, petRequest, 3L, bob));
+        verify(petRepository, never()).updateOwned(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void patchPet_shouldOnlyChangeSuppliedFields() {
+        pet.setVersion(2L);
         when(petRepository.findById(1L)).thenReturn(Optional.of(pet));
-        when(userRepository.findByUsername("bob")).thenReturn(Optional.of(user));
 
-        petService.deletePet(1L, "bob");
+        PetResponse patched = petService.patchPet(1L, new PetPatchRequest(null, null, 7), 2L, bob);
+
+        assertEquals("Buddy", patched.name());
+        assertEquals(PetType.DOG, patched.type());
+        assertEquals(7, patched.age());
+        verify(petRepository).flush();
+    }
+
+    @Test
+    void deletePet_shouldCallRepository() {
+        when(petRepository.lockByIds(List.of(1L), null)).thenReturn(List.of(new LockedPet(1L, 1L, PetType.DOG, 3, 0L)));
+
+        when(petRepository.deleteByIds(List.of(1L))).thenReturn(1);
+
+        petService.deletePet(1L, bob);
+
+        verify(petRepository).deleteByIds(List.of(1L));
+        verify(petRepository, never()).existsById(any());
+        verify(eventPublisher).publishEvent(PetChangedEvent.deleted(1L, 1L));
+    }
+
+    @Test
+    void deletePet_shouldSucceedForAdminWithoutUserLookup() {
+        when(petRepository.lockByIds(List.of(1L), null)).thenReturn(List.of(new LockedPet(1L, 1L, PetType.DOG, 3, 0L)));
+
+        when(petRepository.deleteByIds(List.of(1L))).thenReturn(1);
+
+        petService.deletePet(1L, admin);
 
-        verify(petRepository).deleteById(1L);
+        verify(petRepository).deleteByIds(List.of(1L));
+        verify(userRepository).addPetCount(1L, -1);
+        verifyNoMoreInteractions(userRepository);
+        verify(eventPublisher).publishEvent(PetChangedEvent.deleted(1L, 1L));
+    }
+
+    @Test
+    void deletePets_shouldScopeDeleteToOwnerForRegularUser() {
+        when(petRepository.lockByIds(List.of(1L, 2L), 1L)).thenReturn(List.of(new LockedPet(1L, 1L, PetType.DOG, 3, 0L)));
+        when(petRepository.deleteOwnedByIds(List.of(1L), 1L)).thenReturn(1);
+
+        BulkOperationResponse result = petService.deletePets(List.of(1L, 2L), bob);
+
+        assertEquals(1, result.affected());
+        verify(petRepository, never()).deleteByIds(any());
+        verify(eventPublisher).publishEvent(new PetChangedEvent(1L));
+    }
+
+    @Test
+    void deletePets_shouldPublishTheTypesAndAgesItRemoves() {
+        when(petRepository.lockByIds(List.of(1L, 2L), 1L)).thenReturn(List.of(new LockedPet(1L, 1L, PetType.DOG, 3, 0L)));
+        when(petRepository.deleteOwnedByIds(List.of(1L), 1L)).thenReturn(1);
+
+        petService.deletePets(List.of(1L, 2L), bob);
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        PetStatsDelta delta = events.getAllValues().stream()
+                .filter(PetStatsDelta.class::isInstance).map(PetStatsDelta.class::cast)
+                .findFirst().orElseThrow();
+        // Applied to counters holding two such dogs, one is left
+        when(petRepository.countByTypeAndAge()).thenReturn(List.of(new PetTypeAgeCount(PetType.DOG, 3, 2)));
+        PetStatsCounters counters = new PetStatsCounters(petRepository, 60_000, () -> 0L);
+        counters.reconcile();
+        counters.onStatsChanged(delta);
+        assertEquals(1, counters.snapshot().byType().get(PetType.DOG));
+        assertEquals(1, counters.snapshot().total());
+    }
+
+    @Test
+    void deletePets_byAdmin_shouldLowerEachOwnersCountByThePetsRemoved() {
+        // Pet 4 has no owner
+        when(petRepository.lockByIds(List.of(1L, 2L, 3L, 4L), null)).thenReturn(List.of(
+                new LockedPet(1L, 1L, PetType.DOG, 3, 0L), new LockedPet(2L, 2L, PetType.DOG, 3, 0L),
+                new LockedPet(3L, 1L, PetType.CAT, 1, 0L), new LockedPet(4L, null, PetType.CAT, 1, 0L)));
+        when(petRepository.deleteByIds(List.of(1L, 2L, 3L, 4L))).thenReturn(4);
+
+        petService.deletePets(List.of(1L, 2L, 3L, 4L), admin);
+
+        verify(userRepository).addPetCount(1L, -2);
+        verify(userRepository).addPetCount(2L, -1);
+        verifyNoMoreInteractions(userRepository);
+        verify(eventPublisher).publishEvent(new OwnerPetCountChange(1L, null, -2));
+        verify(eventPublisher).publishEvent(new PetChangedEvent(1L));
+        verify(eventPublisher).publishEvent(new PetChangedEvent(2L));
+        verify(eventPublisher).publishEvent(PetChangedEvent.anyOwner());
+    }
+
+    @Test
+    void deletePets_shouldPublishNoStatisticsWhenNothingWasDeleted() {
+        when(petRepository.lockByIds(List.of(1L, 2L), 1L)).thenReturn(List.of());
+
+        BulkOperationResponse result = petService.deletePets(List.of(1L, 2L), bob);
+
+        assertEquals(0, result.affected());
+        verify(petRepository, never()).deleteOwnedByIds(any(), any());
+        verify(eventPublisher, never()).publishEvent(any(PetStatsDelta.class));
+    }
+
+    @Test
+    void getPetStats_shouldRejectNonAdmins() {
+        assertThrows(UnauthorizedActionException.class, () -> petService.getPetStats(bob));
+        verifyNoInteractions(statsCounters);
+    }
+
+    @Test
+    void deletePets_shouldRejectEmptyIdList() {
+        assertThrows(IllegalArgumentException.class, () -> petService.deletePets(List.of(), bob));
+        verifyNoInteractions(petRepository);
+    }
+
+    @Test
+    void transferPets_shouldThrowForNonAdmin() {
+        assertThrows(UnauthorizedActionException.class,
+                () -> petService.transferPets(new PetTransferRequest("bob", "alice"), bob));
+        verifyNoInteractions(petRepository);
     }
 }
@@ -0,0 +1,118 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.response.PetStatsResponse;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetService;
+import com.virtualpets.backend.service.PetStatsCounters;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures GET /pets/stats at the service, served from the in-memory counters, against
+ * the GROUP BY over every pet it replaces. The pets are created through the service, so
+ * the counters are only ever moved by deltas; the reconcile at the end must find no drift.
+ * Run with: mvn test -Pbenchmark -Dtest=PetStatsBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = VirtualPetsBackendApplication.class,
+        properties = {"spring.jpa.show-sql=false", "ratelimit.enabled=false"})
+class PetStatsBenchmark {
+
+    private static final int PETS = 100_000;
+    private static final int BATCH = 500;
+    private static final int SNAPSHOTS = 100_000;
+    private static final int QUERIES = 50;
+
+    @Autowired
+    private PetService petService;
+    @Autowired
+    private PetStatsCounters statsCounters;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void countersAgainstGroupBy() {
+        petRepository.deleteAll();
+        statsCounters.reconcile();
+        Role userRole = roleRepository.findByName("ROLE_USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_USER")));
+        User user = userRepository.findByUsername("stats-bench").orElseGet(() -> {
+            User created = new User();
+            created.setUsername("stats-bench");
+            created.setPassword("unused");
+            created.setRoles(Set.of(userRole));
+            return userRepository.save(created);
+        });
+        AuthenticatedUser owner = new AuthenticatedUser(user.getId(), user.getUsername(), List.of("ROLE_USER"));
+        AuthenticatedUser admin = new AuthenticatedUser(user.getId(), user.getUsername(),
+                List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        Random random = new Random(42);
+        PetType[] types = PetType.values();
+        for (int done = 0; done < PETS; done += BATCH) {
+            List<PetRequest> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                batch.add(new PetRequest("Pet" + (done + i), types[random.nextInt(types.length)], random.nextInt(25)));
+            }
+            petService.createPets(batch, owner);
+        }
+
+        System.out.printf("%n=== Pet statistics, %d pets ===%n", PETS);
+        // Warm-up
+        for (int i = 0; i < 10_000; i++) {
+            petService.getPetStats(admin);
+        }
+        long[] nanos = new long[SNAPSHOTS];
+        PetStatsResponse stats = null;
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            long start = System.nanoTime();
+            stats = petService.getPetStats(admin);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-10s: p50 %9.1f us  p99 %9.1f us%n", "counters",
+                nanos[SNAPSHOTS / 2] / 1e3, nanos[SNAPSHOTS * 99 / 100] / 1e3);
+
+        long[] queryNanos = new long[QUERIES];
+        long rows = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            // The always-true bound changes every run, so H2 cannot hand back the previous result
+            long start = System.nanoTime();
+            rows = jdbcTemplate.queryForList("select count(*) from pets where id > ? group by type, age",
+                    Long.class, -1 - i).stream().mapToLong(Long::longValue).sum();
+            queryNanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(queryNanos);
+        System.out.printf("%-10s: p50 %9.1f us  p99 %9.1f us%n", "GROUP BY",
+                queryNanos[QUERIES / 2] / 1e3, queryNanos[QUERIES * 99 / 100] / 1e3);
+
+        assertThat(stats.total()).isEqualTo(PETS).isEqualTo(rows);
+        statsCounters.reconcile();
+        assertThat(statsCounters.lastDrift()).isZero();
+    }
+}
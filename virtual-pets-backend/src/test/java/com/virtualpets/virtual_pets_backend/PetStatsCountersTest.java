@@ -0,0 +1,109 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.dto.response.PetStatsResponse;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.PetTypeAgeCount;
+import com.virtualpets.backend.service.PetStatsCounters;
+import com.virtualpets.backend.service.PetStatsDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetStatsCountersTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private PetStatsCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new PetStatsCounters(petRepository, 60_000, now::get);
+    }
+
+    @Test
+    void rebuildGroupsAgesIntoBucketsAndListsEveryType() {
+        when(petRepository.countByTypeAndAge()).thenReturn(List.of(
+                new PetTypeAgeCount(PetType.DOG, 0, 2), new PetTypeAgeCount(PetType.DOG, 3, 1),
+                new PetTypeAgeCount(PetType.DOG, 4, 4), new PetTypeAgeCount(PetType.CAT, 25, 5)));
+
+        PetStatsResponse stats = counters.snapshot();
+
+        assertThat(stats.total()).isEqualTo(12);
+        assertThat(stats.byType()).hasSize(PetType.values().length)
+                .containsEntry(PetType.DOG, 7L).containsEntry(PetType.CAT, 5L).containsEntry(PetType.HAMSTER, 0L);
+        assertThat(stats.byAge()).containsEntry("0", 2L).containsEntry("3-4", 5L).containsEntry("21+", 5L)
+                .containsEntry("1", 0L);
+        assertThat(stats.byAge().keySet()).first().isEqualTo("0");
+        assertThat(stats.reconciledAt().toEpochMilli()).isEqualTo(1_000);
+    }
+
+    @Test
+    void deltasMoveTheCountersWithoutQuerying() {
+        when(petRepository.countByTypeAndAge()).thenReturn(List.of(new PetTypeAgeCount(PetType.DOG, 3, 1)));
+        counters.load();
+
+        counters.onStatsChanged(PetStatsDelta.added(PetType.CAT, 1));
+        counters.onStatsChanged(PetStatsDelta.changed(PetType.DOG, 3, PetType.DOG, 9));
+
+        PetStatsResponse stats = counters.snapshot();
+        assertThat(stats.total()).isEqualTo(2);
+        assertThat(stats.byAge()).containsEntry("3-4", 0L).containsEntry("8-10", 1L).containsEntry("1", 1L);
+        verify(petRepository, times(1)).countByTypeAndAge();
+    }
+
+    @Test
+    void unknownChangeReconcilesOnTheNextCheckOnly() {
+        when(petRepository.countByTypeAndAge())
+                .thenReturn(List.of(new PetTypeAgeCount(PetType.DOG, 3, 1)))
+                .thenReturn(List.of(new PetTypeAgeCount(PetType.CAT, 3, 1)));
+        counters.load();
+
+        counters.reconcileIfDue();
+        counters.onStatsChanged(PetStatsDelta.unknown());
+        counters.reconcileIfDue();
+        counters.reconcileIfDue();
+
+        assertThat(counters.reconciles()).isEqualTo(2);
+        assertThat(counters.lastDrift()).isEqualTo(2);
+        assertThat(counters.snapshot().byType()).containsEntry(PetType.CAT, 1L).containsEntry(PetType.DOG, 0L);
+    }
+
+    @Test
+    void periodicCheckReconcilesOnceTheIntervalHasPassed() {
+        when(petRepository.countByTypeAndAge()).thenReturn(List.of());
+        counters.load();
+
+        now.addAndGet(59_999);
+        counters.reconcileIfDue();
+        now.addAndGet(1);
+        counters.reconcileIfDue();
+
+        assertThat(counters.reconciles()).isEqualTo(2);
+        assertThat(counters.lastDrift()).isZero();
+    }
+
+    @Test
+    void deltaCommittedDuringARebuildIsKept() {
+        when(petRepository.countByTypeAndAge()).thenReturn(List.of()).thenAnswer(invocation -> {
+            counters.onStatsChanged(PetStatsDelta.added(PetType.DOG, 2));
+            return List.of(new PetTypeAgeCount(PetType.CAT, 2, 1));
+        });
+        counters.load();
+
+        counters.reconcile();
+
+        assertThat(counters.snapshot().byType()).containsEntry(PetType.DOG, 1L).containsEntry(PetType.CAT, 1L);
+    }
+}
@@ -0,0 +1,135 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetChangedEvent;
+import com.virtualpets.backend.service.PetNameIndex;
+import com.virtualpets.backend.service.PetService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures GET /pets/suggest at the service: per-lookup latency percentiles for one
+ * owner's pets and for an admin searching every pet, once the name index is loaded,
+ * and the database lookups it made while doing so (expected: none).
+ * Run with: mvn test -Pbenchmark -Dtest=PetSuggestBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = VirtualPetsBackendApplication.class,
+        properties = {"spring.jpa.show-sql=false", "ratelimit.enabled=false"})
+class PetSuggestBenchmark {
+
+    private static final int OWNER_PETS = 10_000;
+    private static final int OTHER_PETS = 90_000;
+    private static final int BATCH = 500;
+    private static final int LOOKUPS = 100_000;
+    private static final String[] SYLLABLES = {"Ba", "Bu", "Co", "Da", "Fi", "Go", "Ka", "Lu", "Ma", "Mo",
+            "Na", "Pi", "Ro", "Sa", "Ti", "To", "Wi", "Zo", "Be", "Ri"};
+
+    @Autowired
+    private PetService petService;
+    @Autowired
+    private PetNameIndex nameIndex;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void suggestLatency() {
+        petRepository.deleteAll();
+        Role userRole = roleRepository.findByName("ROLE_USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_USER")));
+        AuthenticatedUser owner = principal(user("suggest-bench", userRole), List.of("ROLE_USER"));
+        AuthenticatedUser other = principal(user("suggest-bench-other", userRole), List.of("ROLE_USER"));
+        AuthenticatedUser admin = principal(user("suggest-bench-admin", userRole), List.of("ROLE_USER", "ROLE_ADMIN"));
+        insert(owner, OWNER_PETS);
+        insert(other, OTHER_PETS);
+        nameIndex.onPetChanged(PetChangedEvent.anyOwner());
+
+        System.out.printf("%n=== Pet name suggest, %d owner pets, %d pets in total ===%n",
+                OWNER_PETS, OWNER_PETS + OTHER_PETS);
+        measure("owner", owner);
+        measure("admin (all pets)", admin);
+    }
+
+    private void measure(String label, AuthenticatedUser principal) {
+        String[] prefixes = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String name = name();
+            prefixes[i] = name.substring(0, 1 + random.nextInt(name.length()));
+        }
+        // Warm-up, including the first load of the index
+        for (int i = 0; i < 20_000; i++) {
+            petService.suggestPets(prefixes[i], 10, principal);
+        }
+
+        long databaseLookups = nameIndex.databaseLookups();
+        long loads = nameIndex.loads();
+        long[] nanos = new long[LOOKUPS];
+        long matches = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            long start = System.nanoTime();
+            matches += petService.suggestPets(prefixes[i], 10, principal).size();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        System.out.printf("%-18s: p50 %6.1f us  p99 %6.1f us  max %8.1f us  %5.1f matches/lookup%n", label,
+                nanos[LOOKUPS / 2] / 1e3, nanos[LOOKUPS * 99 / 100] / 1e3, nanos[LOOKUPS - 1] / 1e3,
+                (double) matches / LOOKUPS);
+        assertThat(nameIndex.databaseLookups()).isEqualTo(databaseLookups);
+        assertThat(nameIndex.loads()).isEqualTo(loads);
+    }
+
+    private void insert(AuthenticatedUser principal, int count) {
+        PetType[] types = PetType.values();
+        for (int done = 0; done < count; done += BATCH) {
+            List<PetRequest> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                batch.add(new PetRequest(name(), types[random.nextInt(types.length)], random.nextInt(21)));
+            }
+            petService.createPets(batch, principal);
+        }
+    }
+
+    private String name() {
+        return SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                + SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+
+    private User user(String username, Role role) {
+        return userRepository.findByUsername(username).orElseGet(() -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("unused");
+            user.setRoles(Set.of(role));
+            return userRepository.save(user);
+        });
+    }
+
+    private static AuthenticatedUser principal(User user, List<String> roles) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), roles);
+    }
+}
@@ -0,0 +1,121 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = VirtualPetsBackendApplication.class, properties = {
+        "ratelimit.auth.ip.capacity=2",
+        "ratelimit.auth.ip.refill-per-minute=1",
+        "ratelimit.auth.user.capacity=1",
+        "ratelimit.auth.user.refill-per-minute=1",
+        "ratelimit.pets.user.capacity=2",
+        "ratelimit.pets.user.refill-per-minute=1"
+})
+@AutoConfigureMockMvc
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    void authRoutes_shouldReturn429WithRetryAfter_whenIpBudgetExhausted() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/auth/register")
+                            .with(request -> { request.setRemoteAddr("10.0.0.1"); return request; })
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        mockMvc.perform(post("/auth/register")
+                        .with(request -> { request.setRemoteAddr("10.0.0.1"); return request; })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.status").value(429));
+    }
+
+    @Test
+    void login_shouldLimitPerUsernameFromEachClientOnly() throws Exception {
+        String body = "{\"username\":\"victim\",\"password\":\"guess\"}";
+        mockMvc.perform(post("/auth/login")
+                        .with(request -> { request.setRemoteAddr("10.0.0.2"); return request; })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(post("/auth/login")
+                        .with(request -> { request.setRemoteAddr("10.0.0.2"); return request; })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isTooManyRequests());
+
+        // Another client can still sign in as the same user
+        mockMvc.perform(post("/auth/login")
+                        .with(request -> { request.setRemoteAddr("10.0.0.3"); return request; })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void petRoutes_shouldLimitPerUser_andAdminCanReadCounters() throws Exception {
+        // Roles are resolved per request, so the token holders must exist
+        String userToken = token(user("limited", "ROLE_USER"));
+        String adminToken = token(user("metrics-admin", "ROLE_USER", "ROLE_ADMIN"));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/pets/999").header("Authorization", userToken))
+                    .andExpect(status().isNotFound());
+        }
+        mockMvc.perform(get("/pets/999").header("Authorization", userToken))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        mockMvc.perform(get("/admin/metrics").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['rateLimit.pets-user.rejected']").value(1));
+    }
+
+    private User user(String username, String... roleNames) {
+        Set<Role> roles = new HashSet<>();
+        for (String roleName : roleNames) {
+            roles.add(roleRepository.findByName(roleName)
+                    .orElseGet(() -> roleRepository.save(new Role(null, roleName))));
+        }
+        User user = userRepository.findByUsername(username).orElseGet(User::new);
+        user.setUsername(username);
+        user.setPassword("unused");
+        user.setRoles(roles);
+        return userRepository.save(user);
+    }
+
+    private String token(User user) {
+        return "Bearer " + jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRoles().stream()
+                .map(Role::getName).collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.security.TokenBucketRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private TokenBucketRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // Burst of 3, one token every second
+        limiter = new TokenBucketRateLimiter("test", 3, 60, 1_000, now::get);
+    }
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenReject() {
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+
+        long wait = limiter.tryAcquire("alice");
+
+        assertTrue(wait > 0, "Fourth call in the same instant should be rejected");
+        assertTrue(wait <= TimeUnit.SECONDS.toNanos(1), "Next token should arrive within one refill period");
+        assertEquals(3, limiter.allowedCount());
+        assertEquals(1, limiter.rejectedCount());
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+        assertTrue(limiter.tryAcquire("alice") > 0);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    void tryAcquire_shouldKeepSeparateBudgetsPerKey() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    void tryAcquire_shouldNeverTrackMoreThanMaxKeys() {
+        TokenBucketRateLimiter small = new TokenBucketRateLimiter("small", 3, 60, 10, now::get);
+        // Every bucket is drained, so none of them is idle
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 3; j++) {
+                small.tryAcquire("ip-" + i);
+            }
+        }
+
+        assertTrue(small.trackedKeys() <= 10, "Buckets past the cap should have been evicted");
+    }
+
+    @Test
+    void tryAcquire_shouldForgetBucketsIdleLongEnoughToRefill() {
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("ip-" + i);
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        limiter.tryAcquire("late");
+
+        assertEquals(1, limiter.trackedKeys());
+    }
+}
@@ -0,0 +1,90 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.model.RevokedToken;
+import com.virtualpets.backend.repository.RevokedTokenRepository;
+import com.virtualpets.backend.security.BloomFilter;
+import com.virtualpets.backend.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTest {
+
+    private final Instant now = Instant.parse("2024-01-01T00:00:00Z");
+    private RevokedTokenRepository repository;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RevokedTokenRepository.class);
+        when(repository.findActiveJtis(any())).thenReturn(List.of("preloaded"));
+        revocationList = new TokenRevocationList(repository, 1_000, Clock.fixed(now, ZoneOffset.UTC));
+        revocationList.load();
+    }
+
+    @Test
+    void isRevoked_shouldAnswerFromMemory() {
+        assertTrue(revocationList.isRevoked("preloaded"));
+        assertFalse(revocationList.isRevoked("other"));
+        assertFalse(revocationList.isRevoked(null));
+
+        verify(repository, never()).existsByJti(any());
+        assertTrue(revocationList.bloomNegatives() > 0, "Unknown ids should mostly stop at the Bloom filter");
+    }
+
+    @Test
+    void revoke_shouldPersistAndTakeEffectImmediately() {
+        revocationList.revoke("jti-1", now.plusSeconds(60));
+
+        assertTrue(revocationList.isRevoked("jti-1"));
+        verify(repository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revoke_alreadyExpiredToken_shouldBeIgnored() {
+        revocationList.revoke("jti-2", now);
+
+        assertFalse(revocationList.isRevoked("jti-2"));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void sweep_shouldDeleteExpiredRowsAndReload() {
+        when(repository.findActiveJtis(any())).thenReturn(List.of("still-active"));
+
+        revocationList.sweep();
+
+        verify(repository).deleteExpired(now);
+        assertTrue(revocationList.isRevoked("still-active"));
+        assertFalse(revocationList.isRevoked("preloaded"));
+        assertEquals(1, revocationList.size());
+    }
+
+    @Test
+    void bloomFilter_shouldHaveNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter bloom = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloom.put("revoked-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloom.mightContain("revoked-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bloom.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "False positive rate should stay near 1%, got " + falsePositives);
+    }
+}
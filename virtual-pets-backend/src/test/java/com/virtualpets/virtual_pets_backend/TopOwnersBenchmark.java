@@ -0,0 +1,134 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.dto.request.PetRequest;
+import com.virtualpets.backend.dto.response.TopOwnerResponse;
+import com.virtualpets.backend.model.Pet.PetType;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.security.AuthenticatedUser;
+import com.virtualpets.backend.service.PetOwnerRanking;
+import com.virtualpets.backend.service.PetService;
+import com.virtualpets.backend.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures GET /users/top-owners at the service, served from the in-memory ranking,
+ * against the GROUP BY over pets.owner_id it replaces. The pets are created through the
+ * service, so users.pet_count and the ranking are only moved by the increments.
+ * Run with: mvn test -Pbenchmark -Dtest=TopOwnersBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = VirtualPetsBackendApplication.class,
+        properties = {"spring.jpa.show-sql=false", "ratelimit.enabled=false"})
+class TopOwnersBenchmark {
+
+    private static final int OWNERS = 1_000;
+    private static final int PETS = 100_000;
+    private static final int BATCH = 100;
+    private static final int TOP = 10;
+    private static final int READS = 100_000;
+    private static final int QUERIES = 50;
+
+    @Autowired
+    private PetService petService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PetOwnerRanking ownerRanking;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rankingAgainstGroupBy() {
+        petRepository.deleteAll();
+        jdbcTemplate.update("update users set pet_count = 0");
+        ownerRanking.reload();
+        Role userRole = roleRepository.findByName("ROLE_USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_USER")));
+        List<AuthenticatedUser> owners = new ArrayList<>(OWNERS);
+        for (int i = 0; i < OWNERS; i++) {
+            owners.add(principal(user("owners-bench-" + i, userRole)));
+        }
+        AuthenticatedUser admin = new AuthenticatedUser(owners.getFirst().getId(), owners.getFirst().getUsername(),
+                List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        // Skewed so the ranking has a clear head: owner i gets batches in proportion to 1 / (i + 1)
+        Random random = new Random(42);
+        PetType[] types = PetType.values();
+        for (int done = 0; done < PETS; done += BATCH) {
+            int owner = (int) Math.min(OWNERS - 1, Math.floor(Math.pow(OWNERS, random.nextDouble())) - 1);
+            List<PetRequest> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                batch.add(new PetRequest("Pet" + (done + i), types[random.nextInt(types.length)], random.nextInt(21)));
+            }
+            petService.createPets(batch, owners.get(owner));
+        }
+
+        System.out.printf("%n=== Top %d pet owners, %d owners, %d pets ===%n", TOP, OWNERS, PETS);
+        // Warm-up
+        for (int i = 0; i < 10_000; i++) {
+            userService.getTopOwners(admin, TOP);
+        }
+        long[] nanos = new long[READS];
+        List<TopOwnerResponse> top = List.of();
+        for (int i = 0; i < READS; i++) {
+            long start = System.nanoTime();
+            top = userService.getTopOwners(admin, TOP);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-10s: p50 %9.1f us  p99 %9.1f us%n", "ranking",
+                nanos[READS / 2] / 1e3, nanos[READS * 99 / 100] / 1e3);
+
+        long[] queryNanos = new long[QUERIES];
+        List<Long> counted = List.of();
+        for (int i = 0; i < QUERIES; i++) {
+            // The always-true bound changes every run, so H2 cannot hand back the previous result
+            long start = System.nanoTime();
+            counted = jdbcTemplate.queryForList("select count(*) from pets where id > ? group by owner_id "
+                    + "order by count(*) desc, owner_id limit " + TOP, Long.class, -1 - i);
+            queryNanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(queryNanos);
+        System.out.printf("%-10s: p50 %9.1f us  p99 %9.1f us%n", "GROUP BY",
+                queryNanos[QUERIES / 2] / 1e3, queryNanos[QUERIES * 99 / 100] / 1e3);
+
+        assertThat(top).extracting(TopOwnerResponse::petCount).containsExactlyElementsOf(counted);
+    }
+
+    private User user(String username, Role role) {
+        return userRepository.findByUsername(username).orElseGet(() -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("unused");
+            user.setRoles(Set.of(role));
+            return userRepository.save(user);
+        });
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), List.of("ROLE_USER"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.jayway.jsonpath.JsonPath;
+import com.virtualpets.backend.VirtualPetsBackendApplication;
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.PetRepository;
+import com.virtualpets.backend.repository.RoleRepository;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.util.JwtUtil;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = VirtualPetsBackendApplication.class)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Role userRole;
+    private String userToken;
+    private String adminToken;
+
+    @BeforeAll
+    void setupUsers() {
+        petRepository.deleteAll();
+        userRepository.deleteAll();
+        userRole = roleRepository.findByName("ROLE_USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_USER")));
+        Role adminRole = roleRepository.findByName("ROLE_ADMIN")
+                .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_ADMIN")));
+
+        User bob = save("bob", userRole);
+        save("alice", userRole);
+        User admin = save("admin", userRole, adminRole);
+
+        userToken = "Bearer " + jwtUtil.generateToken(bob.getId(), bob.getUsername(), Set.of("ROLE_USER"));
+        adminToken = "Bearer " + jwtUtil.generateToken(admin.getId(), admin.getUsername(), Set.of("ROLE_USER", "ROLE_ADMIN"));
+    }
+
+    @AfterAll
+    void cleanup() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void adminListsUsersOnePageAtATime() throws Exception {
+        mockMvc.perform(get("/users/all").param("page", "0").param("size", "2")
+                        .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username", contains("bob", "alice")))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[1].roles", contains("ROLE_USER")));
+
+        mockMvc.perform(get("/users/all").param("page", "1").param("size", "2")
+                        .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("admin"))
+                .andExpect(jsonPath("$.content[0].roles", containsInAnyOrder("ROLE_USER", "ROLE_ADMIN")));
+    }
+
+    @Test
+    void oversizedPageIsRejected() throws Exception {
+        mockMvc.perform(get("/users/all").param("size", "101").header("Authorization", adminToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cachedUserIsNotServedToOtherUsers() throws Exception {
+        mockMvc.perform(get("/users/alice").header("Authorization", adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/alice").header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/users/all").header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void newUserShowsUpDespiteCachedPage() throws Exception {
+        mockMvc.perform(get("/users/all").param("size", "50").header("Authorization", adminToken))
+                .andExpect(jsonPath("$.totalElements").value(3));
+
+        User carol = save("carol", userRole);
+        try {
+            mockMvc.perform(get("/users/all").param("size", "50").header("Authorization", adminToken))
+                    .andExpect(jsonPath("$.totalElements").value(4));
+        } finally {
+            userRepository.delete(carol);
+        }
+    }
+
+    @Test
+    void newPetShowsUpInCachedPetCounts() throws Exception {
+        mockMvc.perform(get("/users/bob").header("Authorization", adminToken))
+                .andExpect(jsonPath("$.petCount").value(0));
+        mockMvc.perform(get("/users/all").param("size", "50").header("Authorization", adminToken))
+                .andExpect(jsonPath("$.content[0].petCount").value(0));
+
+        String created = mockMvc.perform(post("/pets")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Max\",\"type\":\"CAT\",\"age\":2}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Number petId = JsonPath.read(created, "$.id");
+        try {
+            mockMvc.perform(get("/users/bob").header("Authorization", adminToken))
+                    .andExpect(jsonPath("$.petCount").value(1));
+            mockMvc.perform(get("/users/all").param("size", "50").header("Authorization", adminToken))
+                    .andExpect(jsonPath("$.content[0].petCount").value(1));
+        } finally {
+            mockMvc.perform(delete("/pets/{id}", petId.longValue()).header("Authorization", userToken))
+                    .andExpect(status().isNoContent());
+        }
+    }
+
+    private User save(String username, Role... roles) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRoles(Set.of(roles));
+        return userRepository.save(user);
+    }
+}
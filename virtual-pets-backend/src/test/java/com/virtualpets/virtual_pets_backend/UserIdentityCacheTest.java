@@ -0,0 +1,103 @@
+package com.virtualpets.virtual_pets_backend;
+
+import com.virtualpets.backend.model.Role;
+import com.virtualpets.backend.model.RoleName;
+import com.virtualpets.backend.model.User;
+import com.virtualpets.backend.repository.UserRepository;
+import com.virtualpets.backend.service.UserIdentityCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdentityCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private UserIdentityCache cache;
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserIdentityCache(userRepository, 100, 60_000, now::get);
+        alice = new User();
+        alice.setId(7L);
+        alice.setUsername("alice");
+        alice.setRoles(Set.of(new Role(1L, "ROLE_USER")));
+    }
+
+    @Test
+    void repeatedLookupsHitTheDatabaseOnce() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+
+        cache.find("alice");
+        UserIdentityCache.Identity identity = cache.find("alice").orElseThrow();
+
+        assertThat(identity.id()).isEqualTo(7L);
+        assertThat(RoleName.ROLE_USER.isIn(identity.roleMask())).isTrue();
+        verify(userRepository, times(1)).findByUsername("alice");
+        assertThat(cache.hits()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThat(cache.find("ghost")).isEmpty();
+        assertThat(cache.find("ghost")).isEmpty();
+
+        verify(userRepository, times(2)).findByUsername("ghost");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void roleChangesAreSeenAfterTheTtl() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+        cache.find("alice");
+
+        User promoted = new User();
+        promoted.setId(7L);
+        promoted.setUsername("alice");
+        promoted.setRoles(Set.of(new Role(1L, "ROLE_USER"), new Role(2L, "ROLE_ADMIN")));
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(promoted));
+
+        assertThat(RoleName.ROLE_ADMIN.isIn(cache.find("alice").orElseThrow().roleMask())).isFalse();
+        now.addAndGet(60_000);
+        assertThat(RoleName.ROLE_ADMIN.isIn(cache.find("alice").orElseThrow().roleMask())).isTrue();
+    }
+
+    @Test
+    void evictForcesReload() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+        cache.find("alice");
+
+        cache.evict(7L, "alice");
+        cache.find("alice");
+
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void lookupsByIdAreCachedAndEvictedWithTheUsername() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(alice));
+
+        assertThat(cache.findById(7L).orElseThrow().username()).isEqualTo("alice");
+        cache.findById(7L);
+        cache.evict(7L, "alice");
+        cache.findById(7L);
+
+        verify(userRepository, times(2)).findById(7L);
+        assertThat(cache.hits()).isEqualTo(1);
+    }
+}